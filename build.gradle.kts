@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.2.0"
 	id("io.spring.dependency-management") version "1.1.4"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -43,6 +44,10 @@ dependencies {
 	compileOnly("org.projectlombok:lombok")
 	annotationProcessor("org.projectlombok:lombok")
 
+	// Metrics
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("io.micrometer:micrometer-registry-prometheus")
+
 	// JWT
 	implementation("io.jsonwebtoken:jjwt-api:0.12.3")
 	implementation("io.jsonwebtoken:jjwt-impl:0.12.3")
@@ -72,3 +77,13 @@ tasks {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// JMH-бенчмарки из src/jmh/java: ./gradlew jmh, результаты в build/results/jmh
+jmh {
+	jmhVersion.set("1.37")
+	// Профайлер gc добавляет к пропускной способности аллокации на операцию (gc.alloc.rate.norm)
+	profilers.add("gc")
+	fork.set(1)
+	warmupIterations.set(3)
+	iterations.set(5)
+}
@@ -0,0 +1,133 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.model.entity.PlanetModifier;
+import com.example.is_rogue_trader.model.enums.EventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Один цикл правил планет торговца: путь сущностей (правила TimeService над {@link Planet} с BigDecimal)
+ * против колонок {@link PlanetSimulationCore}. Запросы к БД не участвуют, сравниваются только правила.
+ * Аллокации на операцию показывает профайлер gc (./gradlew jmh, см. блок jmh в build.gradle.kts)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TickRulesBenchmark {
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    @Param({"100", "1000", "10000"})
+    private int planetCount;
+
+    private List<Planet> planets;
+    private BigDecimal[] initialWealth;
+    private BigDecimal[] initialLoyalty;
+    private PlanetModifiers modifiers;
+    private PlanetSimulationCore snapshot;
+    private PlanetSimulationCore core;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom seed = new SplittableRandom(42);
+        planets = new ArrayList<>(planetCount);
+        List<PlanetModifier> upgraded = new ArrayList<>();
+        for (int i = 0; i < planetCount; i++) {
+            Planet planet = new Planet();
+            planet.setId((long) i + 1);
+            planet.setName("Планета " + i);
+            planet.setLoyalty(BigDecimal.valueOf(20 + seed.nextInt(81)));
+            planet.setWealth(BigDecimal.valueOf(seed.nextLong(100_000, 10_000_000), 2));
+            planet.setIsRebellious(planet.getLoyalty().intValue() < 30);
+            planets.add(planet);
+            if (i % 4 == 0) {
+                upgraded.add(new PlanetModifier(planet.getId(), new BigDecimal("0.1300"), 1, new BigDecimal("0.8000")));
+            }
+        }
+        initialWealth = planets.stream().map(Planet::getWealth).toArray(BigDecimal[]::new);
+        initialLoyalty = planets.stream().map(Planet::getLoyalty).toArray(BigDecimal[]::new);
+        modifiers = PlanetModifiers.of(upgraded);
+        snapshot = PlanetSimulationCore.fromPlanets(planets, modifiers);
+        core = snapshot.copy();
+        random = new SplittableRandom(7);
+    }
+
+    // Фазы режима STANDARD: каждая фаза проходит по всем планетам
+    @Benchmark
+    public BigDecimal entityCycle(Blackhole blackhole) {
+        restorePlanets();
+        BigDecimal totalTax = BigDecimal.ZERO;
+        for (Planet planet : planets) {
+            if (!planet.getIsRebellious()) {
+                totalTax = totalTax.add(TimeService.applyTax(planet, modifiers.forPlanet(planet.getId())));
+            }
+        }
+        for (Planet planet : planets) {
+            if (random.nextDouble() < TimeService.eventChance(planet, modifiers.forPlanet(planet.getId()))) {
+                blackhole.consume(EVENT_TYPES[random.nextInt(EVENT_TYPES.length)]);
+                blackhole.consume(random.nextInt(10) + 1);
+            }
+        }
+        for (Planet planet : planets) {
+            TimeService.applyLoyaltyDrift(planet, random, modifiers.forPlanet(planet.getId()));
+        }
+        for (Planet planet : planets) {
+            if (TimeService.isRebellionTriggered(planet)) {
+                planet.setIsRebellious(true);
+            }
+        }
+        return totalTax;
+    }
+
+    // Те же фазы над колонками ядра
+    @Benchmark
+    public long coreCycle() {
+        core.restore(snapshot);
+        runCycle(core);
+        return core.getCollectedTaxMicros();
+    }
+
+    // Цикл режима FUSED целиком: загрузка сущностей в ядро, фазы и запись изменённых сущностей
+    @Benchmark
+    public List<Planet> fusedCycle() {
+        restorePlanets();
+        PlanetSimulationCore cycleCore = PlanetSimulationCore.fromPlanets(planets, modifiers);
+        runCycle(cycleCore);
+        return cycleCore.writeBack(planets);
+    }
+
+    // Каждый вызов начинает с исходного состояния, как цикл после чтения из БД:
+    // иначе налог за итерацию свёл бы богатство к нулю, а бунты охватили бы все планеты.
+    // Восстановление только переставляет ссылки и копирует массивы, без аллокаций
+    private void restorePlanets() {
+        for (int i = 0; i < planets.size(); i++) {
+            Planet planet = planets.get(i);
+            planet.setWealth(initialWealth[i]);
+            planet.setLoyalty(initialLoyalty[i]);
+            planet.setIsRebellious(initialLoyalty[i].intValue() < 30);
+        }
+    }
+
+    private void runCycle(PlanetSimulationCore simulation) {
+        simulation.startCycle();
+        simulation.collectTaxes();
+        simulation.generateEvents(random);
+        simulation.updateLoyalty(random);
+        simulation.checkRebellions();
+    }
+}
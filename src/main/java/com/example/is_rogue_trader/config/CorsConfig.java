@@ -46,6 +46,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 "Authorization", 
                 "Content-Type",
                 "X-Total-Count",
+                "X-Next-Cursor",
                 "Access-Control-Allow-Origin",
                 "Access-Control-Allow-Credentials"
         ));
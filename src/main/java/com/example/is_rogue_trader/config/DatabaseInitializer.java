@@ -2,6 +2,7 @@ package com.example.is_rogue_trader.config;
 
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.stereotype.Component;
@@ -12,6 +13,10 @@ import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+/**
+ * Выполняет SQL-скрипты схемы при запуске. EntityManagerFactory создаётся только после них:
+ * Hibernate сверяет шаг последовательностей с allocationSize, а шаг 50 задаёт schema.sql
+ */
 @Slf4j
 @Component
 public class DatabaseInitializer {
@@ -66,4 +71,12 @@ public class DatabaseInitializer {
             throw new RuntimeException("Script execution failed: " + scriptPath, e);
         }
     }
-}
\ No newline at end of file
+
+    // Добавляет databaseInitializer в depends-on автоконфигурированной EntityManagerFactory
+    @Component
+    static class JpaDependsOnDatabaseInitializer extends EntityManagerFactoryDependsOnPostProcessor {
+        JpaDependsOnDatabaseInitializer() {
+            super("databaseInitializer");
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.is_rogue_trader.controller;
 
+import com.example.is_rogue_trader.dto.BulkMessageRequest;
+import com.example.is_rogue_trader.dto.MessageDTO;
 import com.example.is_rogue_trader.dto.SendMessageRequest;
 import com.example.is_rogue_trader.model.entity.Message;
+import com.example.is_rogue_trader.model.entity.MessageStats;
 import com.example.is_rogue_trader.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/astropaths")
@@ -30,33 +34,31 @@ public class AstropathController {
     @Operation(summary = "Получить сообщения для отправки",
             description = "Возвращает сообщения, которые нужно отправить через варп",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getPendingMessages(
+    public ResponseEntity<List<MessageDTO>> getPendingMessages(
             @Parameter(description = "ID астропата", required = true)
-            @PathVariable Long astropathId) {
-
-        // Получаем сообщения, где астропат - отправитель и они не доставлены
-        List<Message> messages = messageService.getMessagesForUser(astropathId);
-        List<Message> pendingMessages = messages.stream()
-                .filter(msg -> msg.getSender().getId().equals(astropathId) && !msg.getDelivered())
-                .toList();
+            @PathVariable Long astropathId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
 
-        return ResponseEntity.ok(pendingMessages);
+        // Сообщения, где астропат - отправитель и они не доставлены
+        return messageService.getUndeliveredMessagesFromAstropath(astropathId, cursor, limit).toResponse();
     }
 
     @GetMapping("/{astropathId}/messages/delivered")
     @Operation(summary = "Получить отправленные сообщения",
             description = "Возвращает сообщения, которые уже были отправлены",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getDeliveredMessages(
+    public ResponseEntity<List<MessageDTO>> getDeliveredMessages(
             @Parameter(description = "ID астропата", required = true)
-            @PathVariable Long astropathId) {
-
-        List<Message> messages = messageService.getMessagesForUser(astropathId);
-        List<Message> deliveredMessages = messages.stream()
-                .filter(msg -> msg.getSender().getId().equals(astropathId) && msg.getDelivered())
-                .toList();
+            @PathVariable Long astropathId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
 
-        return ResponseEntity.ok(deliveredMessages);
+        return messageService.getDeliveredMessagesFromAstropath(astropathId, cursor, limit).toResponse();
     }
 
     // ==================== КОМАНДЫ ОТ ТОРГОВЦА ====================
@@ -65,19 +67,15 @@ public class AstropathController {
     @Operation(summary = "Получить команды от торговца",
             description = "Возвращает команды, полученные от вольного торговца",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getCommandsFromTrader(
+    public ResponseEntity<List<MessageDTO>> getCommandsFromTrader(
             @Parameter(description = "ID астропата", required = true)
-            @PathVariable Long astropathId) {
-
-        List<Message> messages = messageService.getMessagesForUser(astropathId);
-        List<Message> traderCommands = messages.stream()
-                .filter(msg -> msg.getReceiver().getId().equals(astropathId) &&
-                        msg.getMessageType() != null &&
-                        (msg.getMessageType().name().contains("REQUEST") ||
-                                msg.getMessageType().name().contains("RESPONSE")))
-                .toList();
+            @PathVariable Long astropathId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
 
-        return ResponseEntity.ok(traderCommands);
+        return messageService.getReceivedCommands(astropathId, cursor, limit).toResponse();
     }
 
     // ==================== ОТПРАВКА СООБЩЕНИЙ ====================
@@ -98,6 +96,7 @@ public class AstropathController {
                 request.getContent(),
                 request.getMessageType(),
                 request.getCommandId(),
+                request.getPayload(),
                 request.getResourcesWealth(),
                 request.getResourcesIndustry(),
                 request.getResourcesResources(),
@@ -115,11 +114,33 @@ public class AstropathController {
     @Operation(summary = "Доставить сообщение",
             description = "Астропат отмечает сообщение как доставленное получателю",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<Message> deliverMessage(
+    public ResponseEntity<MessageDTO> deliverMessage(
             @Parameter(description = "ID сообщения", required = true)
             @PathVariable Long messageId) {
-        Message message = messageService.markMessageDelivered(messageId);
-        return ResponseEntity.ok(message);
+        return ResponseEntity.ok(messageService.markMessageDelivered(messageId));
+    }
+
+    @PostMapping("/{astropathId}/messages/deliver")
+    @Operation(summary = "Доставить сообщения пачкой",
+            description = "Отмечает доставленными сообщения, которые астропат отправил или получил, одним запросом к БД. " +
+                    "Чужие и уже доставленные сообщения пропускаются. ID астропата должен совпадать с пользователем токена",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<Map<String, Object>> deliverMessages(
+            @Parameter(description = "ID астропата", required = true)
+            @PathVariable Long astropathId,
+            @Valid @RequestBody BulkMessageRequest request) {
+        List<Long> delivered = messageService.deliverMessages(astropathId, request.getMessageIds());
+        Set<Long> updated = Set.copyOf(delivered);
+        List<Long> skipped = request.getMessageIds().stream()
+                .distinct()
+                .filter(id -> !updated.contains(id))
+                .toList();
+
+        return ResponseEntity.ok(Map.of(
+                "delivered", delivered,
+                "skipped", skipped,
+                "status", "delivered"
+        ));
     }
 
     // ==================== ПЕРЕСЫЛКА КОМАНД ====================
@@ -150,6 +171,7 @@ public class AstropathController {
                 originalMessage.getContent(),
                 originalMessage.getMessageType(),
                 originalMessage.getCommandId(),
+                messageService.payloadOf(originalMessage),
                 originalMessage.getResourcesWealth(),
                 originalMessage.getResourcesIndustry(),
                 originalMessage.getResourcesResources(),
@@ -214,26 +236,11 @@ public class AstropathController {
             @Parameter(description = "ID астропата", required = true)
             @PathVariable Long astropathId) {
 
-        List<Message> allMessages = messageService.getMessagesForUser(astropathId);
-
-        long sentMessages = allMessages.stream()
-                .filter(msg -> msg.getSender().getId().equals(astropathId))
-                .count();
-
-        long deliveredMessages = allMessages.stream()
-                .filter(msg -> msg.getSender().getId().equals(astropathId) && msg.getDelivered())
-                .count();
-
-        long distortedMessages = allMessages.stream()
-                .filter(msg -> msg.getSender().getId().equals(astropathId) && msg.getDistorted())
-                .count();
-
-        long receivedCommands = allMessages.stream()
-                .filter(msg -> msg.getReceiver().getId().equals(astropathId) &&
-                        msg.getMessageType() != null &&
-                        (msg.getMessageType().name().contains("REQUEST") ||
-                                msg.getMessageType().name().contains("RESPONSE")))
-                .count();
+        MessageStats stats = messageService.getMessageStats(astropathId);
+        long sentMessages = stats.getSent();
+        long deliveredMessages = stats.getDelivered();
+        long distortedMessages = stats.getDistorted();
+        long receivedCommands = stats.getReceivedCommands();
 
         return ResponseEntity.ok(Map.of(
                 "sentMessages", sentMessages,
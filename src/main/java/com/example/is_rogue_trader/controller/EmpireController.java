@@ -1,6 +1,8 @@
 package com.example.is_rogue_trader.controller;
 
+import com.example.is_rogue_trader.dto.EmpireForecastDTO;
 import com.example.is_rogue_trader.dto.EmpireResourcesDTO;
+import com.example.is_rogue_trader.service.EmpireForecastService;
 import com.example.is_rogue_trader.service.EmpireService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +20,7 @@ import java.util.Map;
 @Tag(name = "Империя", description = "API для получения информации об империи торговца (использует PL/pgSQL функцию get_empire_resources)")
 public class EmpireController {
     private final EmpireService empireService;
+    private final EmpireForecastService empireForecastService;
 
     @GetMapping("/{traderId}/resources")
     @Operation(summary = "Получить ресурсы империи", 
@@ -36,5 +39,21 @@ public class EmpireController {
             @Parameter(description = "ID торговца", required = true) @PathVariable Long traderId) {
         return ResponseEntity.ok(Map.of("influence", empireService.calculateTotalInfluence(traderId)));
     }
+
+    @GetMapping("/{traderId}/forecast")
+    @Operation(summary = "Прогноз империи методом Монте-Карло",
+               description = "Выполняет независимые симуляции правил цикла времени над снимком планет торговца " +
+                           "без записи в БД. Возвращает вероятность бунта каждой планеты в течение заданного " +
+                           "числа циклов и распределение казны. При исчерпании бюджета времени результат " +
+                           "считается по завершённым прогонам.",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<EmpireForecastDTO> getForecast(
+            @Parameter(description = "ID торговца", required = true) @PathVariable Long traderId,
+            @Parameter(description = "Горизонт прогноза в циклах (до 100)") @RequestParam(defaultValue = "10") int cycles,
+            @Parameter(description = "Количество прогонов (до 100000)") @RequestParam(defaultValue = "1000") int runs,
+            @Parameter(description = "Бюджет времени в мс (до 10000)") @RequestParam(defaultValue = "2000") long budgetMs,
+            @Parameter(description = "Seed для воспроизводимого прогноза") @RequestParam(required = false) Long seed) {
+        return ResponseEntity.ok(empireForecastService.forecast(traderId, cycles, runs, budgetMs, seed));
+    }
 }
 
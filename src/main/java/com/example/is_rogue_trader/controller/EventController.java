@@ -5,14 +5,17 @@ import com.example.is_rogue_trader.dto.ResolveCrisisRequest;
 import com.example.is_rogue_trader.model.entity.Event;
 import com.example.is_rogue_trader.model.entity.Planet;
 import com.example.is_rogue_trader.service.EventService;
+import com.example.is_rogue_trader.service.EventStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -23,6 +26,7 @@ import java.util.Map;
 @Tag(name = "События", description = "API для управления событиями и кризисами (использует PL/pgSQL функцию resolve_crisis)")
 public class EventController {
     private final EventService eventService;
+    private final EventStreamService eventStreamService;
 
     // Добавьте эти endpoints:
     @GetMapping
@@ -41,6 +45,20 @@ public class EventController {
         return ResponseEntity.ok(eventService.getEventsByTrader(traderId));
     }
 
+    @GetMapping(value = "/trader/{traderId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток событий торговца (SSE)",
+            description = "Отправляет новые события и разрешённые кризисы планет торговца по мере фиксации. " +
+                    "При переподключении с заголовком Last-Event-ID догружаются пропущенные элементы; " +
+                    "если они уже вытеснены из истории, приходит элемент reset и данные нужно перезагрузить. " +
+                    "Токен можно передать параметром access_token (EventSource не поддерживает заголовки)",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public SseEmitter streamTraderEvents(
+            @Parameter(description = "ID торговца", required = true) @PathVariable Long traderId,
+            @Parameter(description = "ID последнего полученного элемента")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return eventStreamService.subscribe(traderId, lastEventId);
+    }
+
     @GetMapping("/planet/{planetId}")
     @Operation(summary = "Получить события планеты", description = "Возвращает все события планеты",
             security = @SecurityRequirement(name = "bearerAuth"))
@@ -1,8 +1,11 @@
 package com.example.is_rogue_trader.controller;
 
-import com.example.is_rogue_trader.dto.ExecuteCommandRequest;
+import com.example.is_rogue_trader.dto.BulkMessageRequest;
+import com.example.is_rogue_trader.dto.CommandDispatchResultDTO;
+import com.example.is_rogue_trader.dto.MessageDTO;
 import com.example.is_rogue_trader.model.entity.Message;
 import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.service.CommandDispatcher;
 import com.example.is_rogue_trader.service.MessageService;
 import com.example.is_rogue_trader.service.PlanetService;
 import com.example.is_rogue_trader.service.ProjectService;
@@ -10,7 +13,6 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,6 +29,7 @@ public class GovernorController {
     private final MessageService messageService;
     private final PlanetService planetService;
     private final ProjectService projectService;
+    private final CommandDispatcher commandDispatcher;
 
     // ==================== ИНФОРМАЦИЯ О ПЛАНЕТЕ ====================
 
@@ -51,68 +54,58 @@ public class GovernorController {
     @Operation(summary = "Получить мои команды",
             description = "Возвращает команды, назначенные губернатору для выполнения",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getMyCommands(
+    public ResponseEntity<List<MessageDTO>> getMyCommands(
             @Parameter(description = "ID губернатора", required = true)
-            @PathVariable Long governorId) {
+            @PathVariable Long governorId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
         // Получаем команды, где губернатор - получатель
-        List<Message> commands = messageService.getCommandsForReceiver(governorId);
-        return ResponseEntity.ok(commands);
+        return messageService.getCommandsForReceiver(governorId, cursor, limit).toResponse();
     }
 
     @GetMapping("/{governorId}/commands/pending")
     @Operation(summary = "Получить ожидающие команды",
             description = "Возвращает невыполненные команды губернатора",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getPendingCommands(
+    public ResponseEntity<List<MessageDTO>> getPendingCommands(
             @Parameter(description = "ID губернатора", required = true)
-            @PathVariable Long governorId) {
-        List<Message> commands = messageService.getCommandsForReceiver(governorId);
-        List<Message> pendingCommands = commands.stream()
-                .filter(cmd -> !cmd.getCompleted())
-                .toList();
-        return ResponseEntity.ok(pendingCommands);
+            @PathVariable Long governorId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        // Запрос команд получателя уже отбирает только невыполненные
+        return messageService.getCommandsForReceiver(governorId, cursor, limit).toResponse();
     }
 
     // ==================== ВЫПОЛНЕНИЕ КОМАНД ====================
 
     @PostMapping("/commands/{messageId}/execute")
     @Operation(summary = "Выполнить команду",
-            description = "Губернатор выполняет полученную команду (улучшение планеты, решение кризиса)",
+            description = "Губернатор выполняет полученную команду по её параметрам: UPGRADE_REQUEST начинает проект " +
+                    "улучшения планеты, CRISIS_RESPONSE разрешает кризис. Если команда не прошла проверку, " +
+                    "причина возвращается в failed, а команда остаётся невыполненной",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<Map<String, Object>> executeCommand(
+    public ResponseEntity<CommandDispatchResultDTO> executeCommand(
             @Parameter(description = "ID сообщения/команды", required = true)
-            @PathVariable Long messageId,
-            @Valid @RequestBody ExecuteCommandRequest request) {
-
+            @PathVariable Long messageId) {
         Message message = messageService.getMessageById(messageId);
+        return ResponseEntity.ok(commandDispatcher.dispatch(message.getReceiver().getId(), List.of(messageId)));
+    }
 
-        // Логика выполнения команды в зависимости от типа
-        String resultMessage = "Команда выполнена";
-
-        switch (message.getMessageType()) {
-            case UPGRADE_REQUEST:
-                // Создание проекта улучшения
-                // Нужно извлечь upgradeId из content или commandId
-                resultMessage = "Проект улучшения начат";
-                break;
-
-            case CRISIS_RESPONSE:
-                // Решение кризиса с использованием ресурсов из сообщения
-                resultMessage = "Кризис решен";
-                break;
-
-            default:
-                resultMessage = "Неизвестный тип команды";
-        }
-
-        // Помечаем команду как выполненную
-        messageService.markCommandCompleted(messageId);
-
-        return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "message", resultMessage,
-                "commandId", messageId
-        ));
+    @PostMapping("/{governorId}/commands/execute")
+    @Operation(summary = "Выполнить команды пачкой",
+            description = "Выполняет перечисленные команды губернатора или, без тела запроса, все невыполненные " +
+                    "в порядке отправки. Проекты создаются пакетом, кризисы разрешаются одним вызовом resolve_crises()",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<CommandDispatchResultDTO> executeCommands(
+            @Parameter(description = "ID губернатора", required = true)
+            @PathVariable Long governorId,
+            @RequestBody(required = false) BulkMessageRequest request) {
+        return ResponseEntity.ok(commandDispatcher.dispatch(
+                governorId, request != null ? request.getMessageIds() : null));
     }
 
     // ==================== УПРАВЛЕНИЕ РЕСУРСАМИ ====================
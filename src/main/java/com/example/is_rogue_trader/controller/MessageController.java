@@ -1,7 +1,11 @@
 package com.example.is_rogue_trader.controller;
 
+import com.example.is_rogue_trader.dto.BroadcastMessageRequest;
+import com.example.is_rogue_trader.dto.BulkMessageRequest;
+import com.example.is_rogue_trader.dto.MessageDTO;
+import com.example.is_rogue_trader.dto.MessageSearchFilter;
 import com.example.is_rogue_trader.dto.SendMessageRequest;
-import com.example.is_rogue_trader.model.entity.Message;
+import com.example.is_rogue_trader.model.enums.MessageType;
 import com.example.is_rogue_trader.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,11 +13,14 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -36,6 +43,7 @@ public class MessageController {
                 request.getContent(),
                 request.getMessageType(),
                 request.getCommandId(),
+                request.getPayload(),
                 request.getResourcesWealth(),
                 request.getResourcesIndustry(),
                 request.getResourcesResources(),
@@ -47,24 +55,72 @@ public class MessageController {
         ));
     }
 
+    @PostMapping("/broadcast")
+    @Operation(summary = "Разослать сообщение",
+            description = "Отправляет одно сообщение списку пользователей, губернаторам планет или всем пользователям роли. " +
+                    "Возвращает ID сообщений в порядке получателей",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<Map<String, Object>> broadcastMessage(
+            @Valid @RequestBody BroadcastMessageRequest request) {
+        List<Long> messageIds = messageService.broadcastMessage(request);
+        return ResponseEntity.ok(Map.of(
+                "messageIds", messageIds,
+                "count", messageIds.size(),
+                "status", "sent"
+        ));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Поиск сообщений",
+            description = "Полнотекстовый поиск по тексту сообщений (русская и английская морфология) с фильтрами " +
+                    "по отправителю, получателю, типу и периоду. Результаты упорядочены по релевантности, " +
+                    "курсор следующей страницы передаётся заголовком X-Next-Cursor",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<List<MessageDTO>> searchMessages(
+            @Parameter(description = "Поисковый запрос: слова, \"фраза\", -исключение, or", required = true)
+            @RequestParam String q,
+            @Parameter(description = "ID отправителя")
+            @RequestParam(required = false) Long senderId,
+            @Parameter(description = "ID получателя")
+            @RequestParam(required = false) Long receiverId,
+            @Parameter(description = "ID пользователя - отправителя или получателя")
+            @RequestParam(required = false) Long userId,
+            @Parameter(description = "Тип сообщения")
+            @RequestParam(required = false) MessageType messageType,
+            @Parameter(description = "Начало периода (включительно)", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Конец периода (не включительно)", example = "2024-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        MessageSearchFilter filter = new MessageSearchFilter(q, senderId, receiverId, userId, messageType, from, to);
+        return messageService.searchMessages(filter, cursor, limit).toResponse();
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Получить сообщения пользователя",
-            description = "Возвращает все сообщения пользователя",
+            description = "Возвращает сообщения пользователя постранично, от новых к старым",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getMessagesForUser(
+    public ResponseEntity<List<MessageDTO>> getMessagesForUser(
             @Parameter(description = "ID пользователя", required = true)
-            @PathVariable Long userId) {
-        return ResponseEntity.ok(messageService.getMessagesForUser(userId));
+            @PathVariable Long userId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return messageService.getMessagesForUser(userId, cursor, limit).toResponse();
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить сообщение по ID",
             description = "Возвращает информацию о сообщении",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<Message> getMessage(
+    public ResponseEntity<MessageDTO> getMessage(
             @Parameter(description = "ID сообщения", required = true)
             @PathVariable Long id) {
-        return ResponseEntity.ok(messageService.getMessageById(id));
+        return ResponseEntity.ok(messageService.getMessageDtoById(id));
     }
 
     // ==================== МЕТОДЫ ДЛЯ АСТРОПАТА ====================
@@ -73,27 +129,35 @@ public class MessageController {
     @Operation(summary = "Получить ожидающие сообщения",
             description = "Возвращает сообщения, которые нужно отправить астропату",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getPendingMessages(
+    public ResponseEntity<List<MessageDTO>> getPendingMessages(
             @Parameter(description = "ID астропата", required = true)
-            @PathVariable Long astropathId) {
-        return ResponseEntity.ok(messageService.getPendingMessagesForAstropath(astropathId));
+            @PathVariable Long astropathId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return messageService.getPendingMessagesForAstropath(astropathId, cursor, limit).toResponse();
     }
 
     @GetMapping("/astropath/{astropathId}/delivered")
     @Operation(summary = "Получить доставленные сообщения",
             description = "Возвращает сообщения, доставленные астропатом",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getDeliveredMessages(
+    public ResponseEntity<List<MessageDTO>> getDeliveredMessages(
             @Parameter(description = "ID астропата", required = true)
-            @PathVariable Long astropathId) {
-        return ResponseEntity.ok(messageService.getDeliveredMessagesForAstropath(astropathId));
+            @PathVariable Long astropathId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return messageService.getDeliveredMessagesForAstropath(astropathId, cursor, limit).toResponse();
     }
 
     @PutMapping("/{messageId}/deliver")
     @Operation(summary = "Доставить сообщение",
             description = "Астропат отмечает сообщение как доставленное",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<Message> deliverMessage(
+    public ResponseEntity<MessageDTO> deliverMessage(
             @Parameter(description = "ID сообщения", required = true)
             @PathVariable Long messageId) {
         return ResponseEntity.ok(messageService.markMessageDelivered(messageId));
@@ -107,41 +171,76 @@ public class MessageController {
     @Operation(summary = "Получить команды для выполнения",
             description = "Возвращает команды, назначенные пользователю",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getCommandsForReceiver(
+    public ResponseEntity<List<MessageDTO>> getCommandsForReceiver(
             @Parameter(description = "ID получателя", required = true)
-            @PathVariable Long receiverId) {
-        return ResponseEntity.ok(messageService.getCommandsForReceiver(receiverId));
+            @PathVariable Long receiverId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return messageService.getCommandsForReceiver(receiverId, cursor, limit).toResponse();
     }
 
     @PutMapping("/{messageId}/complete")
     @Operation(summary = "Завершить команду",
             description = "Отмечает команду как выполненную",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<Message> completeCommand(
+    public ResponseEntity<MessageDTO> completeCommand(
             @Parameter(description = "ID сообщения/команды", required = true)
             @PathVariable Long messageId) {
         return ResponseEntity.ok(messageService.markCommandCompleted(messageId));
     }
 
+    @PutMapping("/receiver/{receiverId}/commands/complete")
+    @Operation(summary = "Завершить команды пачкой",
+            description = "Отмечает выполненными команды, адресованные получателю, одним запросом к БД. " +
+                    "Чужие и уже выполненные команды пропускаются. ID получателя должен совпадать с пользователем токена",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<Map<String, Object>> completeCommands(
+            @Parameter(description = "ID получателя", required = true)
+            @PathVariable Long receiverId,
+            @Valid @RequestBody BulkMessageRequest request) {
+        List<Long> completed = messageService.completeCommands(receiverId, request.getMessageIds());
+        Set<Long> updated = Set.copyOf(completed);
+        List<Long> skipped = request.getMessageIds().stream()
+                .distinct()
+                .filter(id -> !updated.contains(id))
+                .toList();
+
+        return ResponseEntity.ok(Map.of(
+                "completed", completed,
+                "skipped", skipped,
+                "status", "completed"
+        ));
+    }
+
     // ==================== МЕТОДЫ ДЛЯ ТОРГОВЦА ====================
 
     @GetMapping("/trader/{traderId}/pending-commands")
     @Operation(summary = "Получить ожидающие команды",
             description = "Возвращает невыполненные команды торговца",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getPendingCommands(
+    public ResponseEntity<List<MessageDTO>> getPendingCommands(
             @Parameter(description = "ID торговца", required = true)
-            @PathVariable Long traderId) {
-        return ResponseEntity.ok(messageService.getPendingCommandsForTrader(traderId));
+            @PathVariable Long traderId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return messageService.getPendingCommandsForTrader(traderId, cursor, limit).toResponse();
     }
 
     @GetMapping("/trader/{traderId}/completed-commands")
     @Operation(summary = "Получить выполненные команды",
             description = "Возвращает выполненные команды торговца",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getCompletedCommands(
+    public ResponseEntity<List<MessageDTO>> getCompletedCommands(
             @Parameter(description = "ID торговца", required = true)
-            @PathVariable Long traderId) {
-        return ResponseEntity.ok(messageService.getCompletedCommandsForTrader(traderId));
+            @PathVariable Long traderId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return messageService.getCompletedCommandsForTrader(traderId, cursor, limit).toResponse();
     }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.example.is_rogue_trader.controller;
 
+import com.example.is_rogue_trader.dto.BulkMessageRequest;
+import com.example.is_rogue_trader.dto.CommandDispatchResultDTO;
 import com.example.is_rogue_trader.dto.CreateRouteRequest;
+import com.example.is_rogue_trader.dto.MessageDTO;
 import com.example.is_rogue_trader.model.entity.Message;
 import com.example.is_rogue_trader.model.entity.Route;
 import com.example.is_rogue_trader.model.entity.Navigator;
 import com.example.is_rogue_trader.repository.NavigatorRepository;
+import com.example.is_rogue_trader.service.CommandDispatcher;
 import com.example.is_rogue_trader.service.MessageService;
 import com.example.is_rogue_trader.service.RouteService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -28,6 +32,7 @@ public class NavigatorController {
     private final RouteService routeService;
     private final MessageService messageService;
     private final NavigatorRepository navigatorRepository;
+    private final CommandDispatcher commandDispatcher;
 
     // ==================== МАРШРУТЫ ====================
 
@@ -71,74 +76,39 @@ public class NavigatorController {
     @Operation(summary = "Получить мои команды",
             description = "Возвращает команды на прокладку маршрутов от торговца",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<Message>> getMyCommands(
+    public ResponseEntity<List<MessageDTO>> getMyCommands(
             @Parameter(description = "ID навигатора", required = true)
-            @PathVariable Long navigatorId) {
-        List<Message> commands = messageService.getCommandsForReceiver(navigatorId);
-        return ResponseEntity.ok(commands);
+            @PathVariable Long navigatorId,
+            @Parameter(description = "Курсор страницы из заголовка X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 200)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return messageService.getCommandsForReceiver(navigatorId, cursor, limit).toResponse();
     }
 
     @PostMapping("/commands/{messageId}/execute")
     @Operation(summary = "Выполнить команду на маршрут",
-            description = "Навигатор выполняет команду на прокладку маршрута",
+            description = "Навигатор прокладывает маршрут по параметрам команды (планеты отправления и назначения). " +
+                    "Если команда не прошла проверку, причина возвращается в failed, а команда остаётся невыполненной",
             security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<Map<String, Object>> executeRouteCommand(
+    public ResponseEntity<CommandDispatchResultDTO> executeRouteCommand(
             @Parameter(description = "ID сообщения/команды", required = true)
             @PathVariable Long messageId) {
-
         Message message = messageService.getMessageById(messageId);
+        return ResponseEntity.ok(commandDispatcher.dispatch(message.getReceiver().getId(), List.of(messageId)));
+    }
 
-        // Извлекаем информацию о маршруте из сообщения
-        // Формат: "Прокладка маршрута от планеты X к планете Y"
-        String content = message.getContent();
-
-        // Парсим content для получения ID планет
-        // Пример простого парсинга (можно улучшить)
-        Long fromPlanetId = extractPlanetId(content, "от планеты");
-        Long toPlanetId = extractPlanetId(content, "к планете");
-
-        Route route = null;
-        String resultMessage;
-
-        if (fromPlanetId != null && toPlanetId != null) {
-            try {
-                // Находим навигатора по ID пользователя (получателя сообщения)
-                Navigator navigator = navigatorRepository.findByUserId(message.getReceiver().getId())
-                        .orElseThrow(() -> new RuntimeException("Навигатор не найден"));
-
-                route = routeService.createRoute(
-                        fromPlanetId,
-                        toPlanetId,
-                        navigator.getId()
-                );
-                resultMessage = "Маршрут успешно проложен";
-            } catch (Exception e) {
-                resultMessage = "Ошибка при прокладке маршрута: " + e.getMessage();
-            }
-        } else {
-            resultMessage = "Не удалось определить планеты для маршрута";
-        }
-
-        // Помечаем команду как выполненную
-        messageService.markCommandCompleted(messageId);
-
-        Map<String, Object> response = Map.of(
-                "status", route != null ? "success" : "error",
-                "message", resultMessage,
-                "commandId", messageId
-        );
-
-        if (route != null) {
-            response = Map.of(
-                    "status", "success",
-                    "message", resultMessage,
-                    "commandId", messageId,
-                    "routeId", route.getId(),
-                    "route", route
-            );
-        }
-
-        return ResponseEntity.ok(response);
+    @PostMapping("/{navigatorId}/commands/execute")
+    @Operation(summary = "Выполнить команды пачкой",
+            description = "Выполняет перечисленные команды навигатора или, без тела запроса, все невыполненные " +
+                    "в порядке отправки. Маршруты создаются пакетом в одной транзакции",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<CommandDispatchResultDTO> executeCommands(
+            @Parameter(description = "ID навигатора", required = true)
+            @PathVariable Long navigatorId,
+            @RequestBody(required = false) BulkMessageRequest request) {
+        return ResponseEntity.ok(commandDispatcher.dispatch(
+                navigatorId, request != null ? request.getMessageIds() : null));
     }
 
     // ==================== СТАТУС ====================
@@ -152,34 +122,14 @@ public class NavigatorController {
             @PathVariable Long navigatorId) {
 
         List<Route> routes = routeService.getRoutesByNavigator(navigatorId);
-        List<Message> commands = messageService.getCommandsForReceiver(navigatorId);
-
-        long completedCommands = commands.stream()
-                .filter(Message::getCompleted)
-                .count();
+        long completedCommands = messageService.countCommandsForReceiver(navigatorId, true);
+        long pendingCommands = messageService.countCommandsForReceiver(navigatorId, false);
 
         return ResponseEntity.ok(Map.of(
                 "totalRoutes", routes.size(),
-                "totalCommands", commands.size(),
+                "totalCommands", completedCommands + pendingCommands,
                 "completedCommands", completedCommands,
-                "pendingCommands", commands.size() - completedCommands
+                "pendingCommands", pendingCommands
         ));
     }
-
-    // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
-
-    private Long extractPlanetId(String content, String keyword) {
-        try {
-            int index = content.indexOf(keyword);
-            if (index != -1) {
-                // Простой парсинг - ищем цифры после ключевого слова
-                String substring = content.substring(index + keyword.length());
-                String numberStr = substring.replaceAll("[^0-9]", " ").trim().split(" ")[0];
-                return Long.parseLong(numberStr);
-            }
-        } catch (Exception e) {
-            // Если не удалось распарсить, возвращаем null
-        }
-        return null;
-    }
 }
\ No newline at end of file
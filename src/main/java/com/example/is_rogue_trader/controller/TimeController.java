@@ -1,11 +1,16 @@
 package com.example.is_rogue_trader.controller;
 
+import com.example.is_rogue_trader.dto.FastForwardResultDTO;
+import com.example.is_rogue_trader.dto.TickJobDTO;
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.service.TickJobService;
 import com.example.is_rogue_trader.service.TimeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,15 +22,52 @@ import java.util.Map;
 @Tag(name = "Время", description = "API для управления временными циклами")
 public class TimeController {
     private final TimeService timeService;
+    private final TickJobService tickJobService;
 
     @PostMapping("/advance/{traderId}")
     @Operation(summary = "Пропустить цикл времени", 
-               description = "Продвигает время на один цикл: обновляет проекты и генерирует события",
+               description = "Продвигает время на один цикл: обновляет проекты и генерирует события. " +
+                       "Режим BULK выполняет налоги, лояльность и бунты set-based запросами, " +
+                       "режим FUSED загружает империю один раз и записывает только изменённые строки, " +
+                       "режим CHUNKED коммитит планеты чанками с контрольной точкой для продолжения после сбоя",
                security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<Map<String, String>> advanceTimeCycle(
-            @Parameter(description = "ID торговца", required = true) @PathVariable Long traderId) {
-        timeService.advanceTimeCycle(traderId);
+            @Parameter(description = "ID торговца", required = true) @PathVariable Long traderId,
+            @Parameter(description = "Режим выполнения цикла") @RequestParam(defaultValue = "STANDARD") TickMode mode) {
+        timeService.advanceTimeCycle(traderId, mode);
         return ResponseEntity.ok(Map.of("message", "Время продвинуто на один цикл"));
     }
+
+    @PostMapping("/advance/{traderId}/fast-forward")
+    @Operation(summary = "Пропустить несколько циклов времени",
+               description = "Продвигает время на N циклов (до 1000) в одной транзакции: циклы выполняются в памяти, " +
+                       "события промежуточных циклов сохраняются, итоговое состояние записывается один раз. " +
+                       "Возвращает сводку по каждому циклу: собранные налоги, события и бунты",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<FastForwardResultDTO> fastForward(
+            @Parameter(description = "ID торговца", required = true) @PathVariable Long traderId,
+            @Parameter(description = "Количество циклов", required = true) @RequestParam int cycles) {
+        return ResponseEntity.ok(timeService.fastForward(traderId, cycles));
+    }
+
+    @PostMapping("/advance/{traderId}/async")
+    @Operation(summary = "Пропустить цикл времени асинхронно",
+               description = "Ставит цикл в очередь отдельного исполнителя и сразу возвращает ID задачи. " +
+                       "Для одного торговца допускается только одна незавершённая задача",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<TickJobDTO> advanceTimeCycleAsync(
+            @Parameter(description = "ID торговца", required = true) @PathVariable Long traderId,
+            @Parameter(description = "Режим выполнения цикла") @RequestParam(defaultValue = "STANDARD") TickMode mode) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tickJobService.submit(traderId, mode));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Статус асинхронного цикла",
+               description = "Возвращает состояние задачи: текущую фазу, число обработанных планет и результат",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<TickJobDTO> getTickJob(
+            @Parameter(description = "ID задачи", required = true) @PathVariable String jobId) {
+        return ResponseEntity.ok(tickJobService.getJob(jobId));
+    }
 }
 
@@ -0,0 +1,48 @@
+package com.example.is_rogue_trader.dto;
+
+import com.example.is_rogue_trader.model.enums.MessageType;
+import com.example.is_rogue_trader.model.enums.UserRole;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Рассылка одного сообщения нескольким получателям. Получатели задаются ровно одним способом:
+ * списком ID пользователей, списком планет (их губернаторы) или ролью
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastMessageRequest {
+    @NotNull
+    private Long senderId;
+
+    private List<Long> receiverIds;
+
+    private List<Long> planetIds;
+
+    private UserRole receiverRole;
+
+    @NotNull
+    private String content;
+
+    private MessageType messageType;
+
+    private Long commandId;
+
+    private CommandPayload payload;
+
+    private BigDecimal resourcesWealth;
+
+    private BigDecimal resourcesIndustry;
+
+    private BigDecimal resourcesResources;
+
+    private BigDecimal distortionChance = new BigDecimal("0.1");
+}
@@ -0,0 +1,18 @@
+package com.example.is_rogue_trader.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkMessageRequest {
+    @NotEmpty
+    private List<Long> messageIds;
+}
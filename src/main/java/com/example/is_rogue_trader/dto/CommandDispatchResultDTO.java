@@ -0,0 +1,23 @@
+package com.example.is_rogue_trader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Результат пачки команд: ключи карт - ID сообщений-команд
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommandDispatchResultDTO {
+    private List<Long> executed;                               // Выполненные и отмеченные выполненными
+    private Map<Long, Long> routes = new LinkedHashMap<>();    // Команда -> ID проложенного маршрута
+    private Map<Long, Long> projects = new LinkedHashMap<>();  // Команда -> ID начатого проекта
+    private Map<Long, Long> crises = new LinkedHashMap<>();    // Команда -> ID разрешённого кризиса
+    private Map<Long, String> failed = new LinkedHashMap<>();  // Команда -> причина, команда остаётся невыполненной
+}
@@ -0,0 +1,37 @@
+package com.example.is_rogue_trader.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Типизированные параметры команды. Заполняются поля, нужные типу команды:
+ * NAVIGATION_REQUEST - fromPlanetId и toPlanetId, UPGRADE_REQUEST - planetId и upgradeId,
+ * CRISIS_RESPONSE - eventId и crisisAction (ресурсы помощи передаются полями resources* сообщения)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Параметры команды")
+public class CommandPayload {
+    @Schema(description = "ID планеты отправления маршрута", example = "1")
+    private Long fromPlanetId;
+
+    @Schema(description = "ID планеты назначения маршрута", example = "2")
+    private Long toPlanetId;
+
+    @Schema(description = "ID планеты для улучшения", example = "1")
+    private Long planetId;
+
+    @Schema(description = "ID улучшения", example = "3")
+    private Long upgradeId;
+
+    @Schema(description = "ID кризиса", example = "5")
+    private Long eventId;
+
+    @Schema(description = "Действие по кризису", example = "HELP", allowableValues = {"HELP", "IGNORE"})
+    private String crisisAction;
+}
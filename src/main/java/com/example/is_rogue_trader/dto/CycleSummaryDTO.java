@@ -0,0 +1,19 @@
+package com.example.is_rogue_trader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CycleSummaryDTO {
+    private Long cycle;
+    private BigDecimal taxesCollected;
+    private Integer eventsRaised;
+    private Integer rebellions;
+}
@@ -0,0 +1,27 @@
+package com.example.is_rogue_trader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmpireForecastDTO {
+    private Long traderId;
+    private Integer cycles;
+    private Integer requestedRuns;
+    private Integer completedRuns;
+    private Boolean budgetExhausted;
+    private Long seed;
+    private BigDecimal wealthMean;
+    private BigDecimal wealthP5;
+    private BigDecimal wealthP50;
+    private BigDecimal wealthP95;
+    private List<PlanetForecastDTO> planets;
+}
@@ -0,0 +1,30 @@
+package com.example.is_rogue_trader.dto;
+
+import com.example.is_rogue_trader.model.enums.EventChangeType;
+import com.example.is_rogue_trader.model.enums.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Элемент SSE-потока событий торговца: новое событие или разрешённый кризис
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventNotificationDTO {
+    private EventChangeType changeType;
+    private Long traderId;
+    private Long eventId;
+    private Long planetId;
+    private String planetName;
+    private EventType eventType;
+    private Integer severity;
+    private String description;
+    private Boolean resolved;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,21 @@
+package com.example.is_rogue_trader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FastForwardResultDTO {
+    private Long traderId;
+    private Long currentCycle;
+    private BigDecimal totalWealth;
+    private BigDecimal totalTaxesCollected;
+    private List<CycleSummaryDTO> cycles;
+}
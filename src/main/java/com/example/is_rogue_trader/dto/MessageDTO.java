@@ -1,25 +1,44 @@
 // MessageDTO.java
 package com.example.is_rogue_trader.dto;
 
+import com.example.is_rogue_trader.model.enums.MessageType;
+import com.example.is_rogue_trader.model.enums.UserRole;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Сообщение для чтения: отправитель и получатель сведены к ID, email и роли, без сущностей User
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class MessageDTO {
     private Long id;
+    private Long senderId;
     private String senderEmail;
+    private UserRole senderRole;
+    private Long receiverId;
     private String receiverEmail;
+    private UserRole receiverRole;
     private String content;
+    private MessageType messageType;
+    private Long commandId;
+    private Long fromPlanetId;
+    private Long toPlanetId;
+    private Long planetId;
+    private Long upgradeId;
+    private Long eventId;
+    private String crisisAction;
+    private BigDecimal resourcesWealth;
+    private BigDecimal resourcesIndustry;
+    private BigDecimal resourcesResources;
     private LocalDateTime sentAt;
     private Boolean delivered;
     private Boolean distorted;
-    private String senderRole;
-    private String receiverRole;
-}
\ No newline at end of file
+    private Boolean completed;
+    private LocalDateTime completionDate;
+}
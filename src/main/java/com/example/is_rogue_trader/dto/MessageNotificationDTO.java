@@ -0,0 +1,34 @@
+package com.example.is_rogue_trader.dto;
+
+import com.example.is_rogue_trader.model.enums.MessageEventType;
+import com.example.is_rogue_trader.model.enums.MessageType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление об изменении сообщения, рассылается отправителю и получателю
+ * через /user/queue/messages
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageNotificationDTO {
+    private MessageEventType eventType;
+    private Long messageId;
+    private Long senderId;
+    private Long receiverId;
+    private MessageType messageType;
+    private Long commandId;
+    private String content;
+    private Boolean distorted;
+    private Boolean delivered;
+    private Boolean completed;
+    private LocalDateTime sentAt;
+    private LocalDateTime completionDate;
+    private LocalDateTime deliverAt;
+}
@@ -0,0 +1,24 @@
+package com.example.is_rogue_trader.dto;
+
+import com.example.is_rogue_trader.model.enums.MessageType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Условия полнотекстового поиска сообщений: незаданные фильтры не ограничивают выборку
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchFilter {
+    private String query;            // Текст запроса в синтаксисе websearch: слова, "фраза", -исключение, or
+    private Long senderId;
+    private Long receiverId;
+    private Long userId;             // Отправитель или получатель
+    private MessageType messageType;
+    private LocalDateTime from;      // Включительно
+    private LocalDateTime to;        // Не включительно
+}
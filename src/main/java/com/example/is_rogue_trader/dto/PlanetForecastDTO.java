@@ -0,0 +1,20 @@
+package com.example.is_rogue_trader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanetForecastDTO {
+    private Long planetId;
+    private String planetName;
+    private BigDecimal loyalty;
+    private Double rebellionProbability;
+    private Double expectedEvents;
+}
@@ -27,6 +27,8 @@ public class SendMessageRequest {
 
     private Long commandId;
 
+    private CommandPayload payload;
+
     private BigDecimal resourcesWealth;
 
     private BigDecimal resourcesIndustry;
@@ -0,0 +1,29 @@
+package com.example.is_rogue_trader.dto;
+
+import com.example.is_rogue_trader.model.enums.TickJobStatus;
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.model.enums.TickPhase;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TickJobDTO {
+    private String jobId;
+    private Long traderId;
+    private TickMode mode;
+    private TickJobStatus status;
+    private TickPhase phase;
+    private Integer planetsProcessed;
+    private Integer planetsTotal;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -18,14 +18,15 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Message {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "messages_id_seq")
+    @SequenceGenerator(name = "messages_id_seq", sequenceName = "messages_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id", nullable = false)
     private User sender;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "receiver_id", nullable = false)
     private User receiver;
 
@@ -38,6 +39,9 @@ public class Message {
     @Column
     private Boolean delivered = false;
 
+    @Column(name = "deliver_at")
+    private LocalDateTime deliverAt; // Окончание перехода через варп, null - доставка вручную
+
     @Column
     private Boolean distorted = false;
 
@@ -48,6 +52,25 @@ public class Message {
     @Column(name = "command_id")
     private Long commandId; // ID связанной команды
 
+    // Типизированные параметры команды, см. CommandDispatcher
+    @Column(name = "from_planet_id")
+    private Long fromPlanetId; // NAVIGATION_REQUEST: планета отправления
+
+    @Column(name = "to_planet_id")
+    private Long toPlanetId; // NAVIGATION_REQUEST: планета назначения
+
+    @Column(name = "planet_id")
+    private Long planetId; // UPGRADE_REQUEST: планета улучшения
+
+    @Column(name = "upgrade_id")
+    private Long upgradeId; // UPGRADE_REQUEST: улучшение
+
+    @Column(name = "event_id")
+    private Long eventId; // CRISIS_RESPONSE: кризис
+
+    @Column(name = "crisis_action", length = 10)
+    private String crisisAction; // CRISIS_RESPONSE: HELP или IGNORE
+
     @Column(name = "resources_wealth", precision = 15, scale = 2)
     private BigDecimal resourcesWealth;
 
@@ -0,0 +1,35 @@
+package com.example.is_rogue_trader.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Счётчики сообщений пользователя: отправленные, доставленные и искажённые им сообщения,
+ * а также полученные команды. Таблица поддерживается триггером на messages, приложение её только читает
+ */
+@Entity
+@Immutable
+@Table(name = "message_stats")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer sent;
+
+    @Column(nullable = false)
+    private Integer delivered;
+
+    @Column(nullable = false)
+    private Integer distorted;
+
+    @Column(name = "received_commands", nullable = false)
+    private Integer receivedCommands;
+}
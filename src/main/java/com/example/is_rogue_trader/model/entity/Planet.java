@@ -20,7 +20,8 @@ import java.util.List;
 @AllArgsConstructor
 public class Planet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "planets_id_seq")
+    @SequenceGenerator(name = "planets_id_seq", sequenceName = "planets_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
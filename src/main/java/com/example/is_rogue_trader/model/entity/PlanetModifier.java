@@ -0,0 +1,34 @@
+package com.example.is_rogue_trader.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Суммарное влияние установленных улучшений на планету в цикле времени.
+ * Таблица пересчитывается триггерами при изменении planet_upgrades, приложение её только читает
+ */
+@Entity
+@Immutable
+@Table(name = "planet_modifiers")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanetModifier {
+    @Id
+    @Column(name = "planet_id")
+    private Long planetId;
+
+    @Column(name = "tax_rate", precision = 5, scale = 4, nullable = false)
+    private BigDecimal taxRate;
+
+    @Column(name = "loyalty_drift", nullable = false)
+    private Integer loyaltyDrift;
+
+    @Column(name = "event_chance_factor", precision = 5, scale = 4, nullable = false)
+    private BigDecimal eventChanceFactor;
+}
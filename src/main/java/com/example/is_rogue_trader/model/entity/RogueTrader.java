@@ -39,6 +39,9 @@ public class RogueTrader {
     @Column
     private Integer influence = 50;
 
+    @Column(name = "current_cycle")
+    private Long currentCycle = 0L;
+
     @OneToMany(mappedBy = "trader", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Planet> planets = new ArrayList<>();
@@ -15,7 +15,8 @@ import lombok.Setter;
 @AllArgsConstructor
 public class Route {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "routes_id_seq")
+    @SequenceGenerator(name = "routes_id_seq", sequenceName = "routes_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,34 @@
+package com.example.is_rogue_trader.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Контрольная точка цикла, выполняемого по чанкам: номер цикла и последняя обработанная планета.
+ * Обновляется в одной транзакции с чанком, поэтому после сбоя цикл продолжается с неё
+ */
+@Entity
+@Table(name = "tick_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TickCheckpoint {
+    @Id
+    @Column(name = "trader_id")
+    private Long traderId;
+
+    @Column(nullable = false)
+    private Long cycle;
+
+    @Column(name = "last_planet_id", nullable = false)
+    private Long lastPlanetId = 0L;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt = LocalDateTime.now();
+}
@@ -42,6 +42,16 @@ public class Upgrade {
     @Column(name = "suitable_types", nullable = false)
     private PlanetType suitableTypes;
 
+    // Влияние на цикл времени: прибавка к ставке налога, к дрейфу лояльности и к множителю вероятности событий
+    @Column(name = "tax_rate_modifier", precision = 5, scale = 4, nullable = false)
+    private BigDecimal taxRateModifier = BigDecimal.ZERO;
+
+    @Column(name = "loyalty_drift_modifier", nullable = false)
+    private Integer loyaltyDriftModifier = 0;
+
+    @Column(name = "event_chance_modifier", precision = 5, scale = 4, nullable = false)
+    private BigDecimal eventChanceModifier = BigDecimal.ZERO;
+
     @ManyToMany(mappedBy = "installedUpgrades", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Planet> planets = new ArrayList<>();
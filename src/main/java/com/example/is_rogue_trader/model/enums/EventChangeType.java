@@ -0,0 +1,6 @@
+package com.example.is_rogue_trader.model.enums;
+
+public enum EventChangeType {
+    CREATED,     // Событие возникло на планете
+    RESOLVED     // Кризис разрешён
+}
@@ -0,0 +1,7 @@
+package com.example.is_rogue_trader.model.enums;
+
+public enum MessageEventType {
+    SENT,         // Сообщение отправлено
+    DELIVERED,    // Сообщение доставлено астропатом
+    COMPLETED     // Команда выполнена
+}
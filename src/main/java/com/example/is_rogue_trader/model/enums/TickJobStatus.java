@@ -0,0 +1,8 @@
+package com.example.is_rogue_trader.model.enums;
+
+public enum TickJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
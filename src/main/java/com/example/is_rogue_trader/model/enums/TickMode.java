@@ -0,0 +1,8 @@
+package com.example.is_rogue_trader.model.enums;
+
+public enum TickMode {
+    STANDARD,    // Поштучная обработка планет через JPA
+    BULK,        // Set-based обработка фаз PL/pgSQL функциями
+    FUSED,       // Однократная загрузка империи, фазы в памяти, запись только изменённых строк
+    CHUNKED      // Планеты по чанкам, каждый чанк в своей транзакции с контрольной точкой
+}
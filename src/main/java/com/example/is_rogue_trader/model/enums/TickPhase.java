@@ -0,0 +1,12 @@
+package com.example.is_rogue_trader.model.enums;
+
+public enum TickPhase {
+    LOADING,     // Загрузка торговца и его планет
+    TAXES,
+    PROJECTS,
+    EVENTS,
+    LOYALTY,
+    REBELLIONS,
+    PLANETS,     // Все фазы планет чанками (режим CHUNKED)
+    WRITING      // Запись изменённых строк (режим FUSED)
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +21,8 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     @Query("SELECT e FROM Event e JOIN e.planet p WHERE p.trader.id = :traderId AND e.resolved = false")
     List<Event> findActiveEventsByTraderId(@Param("traderId") Long traderId);
+
+    // События вместе с планетой и торговцем, нужными уведомлению о разрешении
+    @Query("SELECT e FROM Event e JOIN FETCH e.planet p JOIN FETCH p.trader WHERE e.id IN :ids")
+    List<Event> findAllWithPlanetByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
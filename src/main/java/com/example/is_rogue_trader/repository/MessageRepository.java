@@ -1,45 +1,122 @@
 package com.example.is_rogue_trader.repository;
 
+import com.example.is_rogue_trader.dto.MessageDTO;
 import com.example.is_rogue_trader.model.entity.Message;
 import com.example.is_rogue_trader.model.enums.MessageType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Списки сообщений читаются keyset-страницами: строки строго после курсора (время, ID)
+ * в порядке убывания, размер страницы задаёт Pageable. Каждому запросу соответствует
+ * составной индекс из indexes.sql, поэтому страница читается из индекса без сортировки.
+ * Чтения возвращают {@link MessageDTO}: отправитель и получатель приходят тем же запросом через join
+ */
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
+    String SELECT_DTO = "SELECT new com.example.is_rogue_trader.dto.MessageDTO(" +
+            "m.id, s.id, s.email, s.role, r.id, r.email, r.role, m.content, m.messageType, m.commandId, " +
+            "m.fromPlanetId, m.toPlanetId, m.planetId, m.upgradeId, m.eventId, m.crisisAction, " +
+            "m.resourcesWealth, m.resourcesIndustry, m.resourcesResources, " +
+            "m.sentAt, m.delivered, m.distorted, m.completed, m.completionDate) " +
+            "FROM Message m JOIN m.sender s JOIN m.receiver r ";
 
-    @Query("SELECT m FROM Message m WHERE m.sender.id = :userId OR m.receiver.id = :userId ORDER BY m.sentAt DESC")
-    List<Message> findMessagesForUser(@Param("userId") Long userId);
+    @Query(SELECT_DTO + "WHERE m.id = :id")
+    Optional<MessageDTO> findDtoById(@Param("id") Long id);
 
-    @Query("SELECT m FROM Message m WHERE m.sender.id = :senderId AND m.delivered = false ORDER BY m.sentAt DESC")
-    List<Message> findBySenderIdAndDeliveredFalse(@Param("senderId") Long senderId);
+    @Query(SELECT_DTO + "WHERE m.id IN :ids")
+    List<MessageDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT m FROM Message m WHERE m.receiver.id = :receiverId AND m.delivered = false ORDER BY m.sentAt DESC")
-    List<Message> findByReceiverIdAndDeliveredFalse(@Param("receiverId") Long receiverId);
+    // OR по отправителю и получателю PostgreSQL выполняет через BitmapOr индексов sender и receiver
+    @Query(SELECT_DTO + "WHERE (m.sender.id = :userId OR m.receiver.id = :userId) " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findMessagesForUser(@Param("userId") Long userId,
+                                      @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                      Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE m.sender.id = :senderId AND m.delivered = true ORDER BY m.sentAt DESC")
-    List<Message> findBySenderIdAndDeliveredTrue(@Param("senderId") Long senderId);
+    @Query(SELECT_DTO + "WHERE m.sender.id = :senderId AND m.delivered = false " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findBySenderIdAndDeliveredFalse(@Param("senderId") Long senderId,
+                                                  @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                                  Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE m.receiver.id = :receiverId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = false ORDER BY m.sentAt DESC")
-    List<Message> findCommandsForReceiver(@Param("receiverId") Long receiverId);
+    @Query(SELECT_DTO + "WHERE m.receiver.id = :receiverId AND m.delivered = false " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findByReceiverIdAndDeliveredFalse(@Param("receiverId") Long receiverId,
+                                                    @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                                    Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE m.sender.id = :traderId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = false ORDER BY m.sentAt DESC")
-    List<Message> findPendingCommandsForTrader(@Param("traderId") Long traderId);
+    @Query(SELECT_DTO + "WHERE m.sender.id = :senderId AND m.delivered = true " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findBySenderIdAndDeliveredTrue(@Param("senderId") Long senderId,
+                                                 @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                                 Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE m.sender.id = :traderId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = true ORDER BY m.completionDate DESC")
-    List<Message> findCompletedCommandsForTrader(@Param("traderId") Long traderId);
+    @Query(SELECT_DTO + "WHERE m.receiver.id = :receiverId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = false " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findCommandsForReceiver(@Param("receiverId") Long receiverId,
+                                          @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                          Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE m.sender.id = :userId ORDER BY m.sentAt DESC")
-    List<Message> findBySenderId(@Param("userId") Long userId);
+    // Все команды, полученные пользователем, независимо от выполнения
+    @Query(SELECT_DTO + "WHERE m.receiver.id = :receiverId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findReceivedCommands(@Param("receiverId") Long receiverId,
+                                       @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                       Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE m.receiver.id = :userId ORDER BY m.sentAt DESC")
-    List<Message> findByReceiverId(@Param("userId") Long userId);
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :receiverId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = :completed")
+    long countCommandsForReceiver(@Param("receiverId") Long receiverId, @Param("completed") boolean completed);
 
-    @Query("SELECT COUNT(m) > 0 FROM Message m " +
-           "WHERE m.completed = false AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE')")
-    boolean existsUncompletedCommands();
-}
\ No newline at end of file
+    // Невыполненные команды получателя для диспетчера, от старых к новым. Строки блокируются до конца
+    // транзакции: параллельный запуск дождётся фиксации и не выполнит те же команды повторно
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Message m WHERE m.receiver.id = :receiverId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = false " +
+           "ORDER BY m.sentAt, m.id")
+    List<Message> findPendingCommandsForUpdate(@Param("receiverId") Long receiverId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Message m WHERE m.receiver.id = :receiverId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = false " +
+           "AND m.id IN :ids ORDER BY m.sentAt, m.id")
+    List<Message> findPendingCommandsForUpdate(@Param("receiverId") Long receiverId, @Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "WHERE m.sender.id = :traderId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = false " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findPendingCommandsForTrader(@Param("traderId") Long traderId,
+                                               @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                               Pageable pageable);
+
+    // Выполненные команды упорядочены по дате выполнения, курсор хранит completionDate
+    @Query(SELECT_DTO + "WHERE m.sender.id = :traderId AND m.messageType IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND m.completed = true " +
+           "AND (m.completionDate, m.id) < (:completionDate, :id) ORDER BY m.completionDate DESC, m.id DESC")
+    List<MessageDTO> findCompletedCommandsForTrader(@Param("traderId") Long traderId,
+                                                 @Param("completionDate") LocalDateTime completionDate, @Param("id") Long id,
+                                                 Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE m.sender.id = :userId " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findBySenderId(@Param("userId") Long userId,
+                                 @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                 Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE m.receiver.id = :userId " +
+           "AND (m.sentAt, m.id) < (:sentAt, :id) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findByReceiverId(@Param("userId") Long userId,
+                                   @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id,
+                                   Pageable pageable);
+
+    // Счётчик невыполненных команд отправителя поддерживает триггер pending_commands_count
+    @Query(value = "SELECT COALESCE((SELECT c.pending FROM pending_command_counters c WHERE c.user_id = :userId), 0) > 0",
+           nativeQuery = true)
+    boolean hasPendingCommands(@Param("userId") Long userId);
+}
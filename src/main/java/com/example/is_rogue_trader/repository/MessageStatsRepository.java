@@ -0,0 +1,9 @@
+package com.example.is_rogue_trader.repository;
+
+import com.example.is_rogue_trader.model.entity.MessageStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MessageStatsRepository extends JpaRepository<MessageStats, Long> {
+}
@@ -0,0 +1,15 @@
+package com.example.is_rogue_trader.repository;
+
+import com.example.is_rogue_trader.model.entity.PlanetModifier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlanetModifierRepository extends JpaRepository<PlanetModifier, Long> {
+    @Query("SELECT m FROM PlanetModifier m WHERE m.planetId IN (SELECT p.id FROM Planet p WHERE p.trader.id = :traderId)")
+    List<PlanetModifier> findByTraderId(@Param("traderId") Long traderId);
+}
@@ -1,6 +1,7 @@
 package com.example.is_rogue_trader.repository;
 
 import com.example.is_rogue_trader.model.entity.Planet;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +12,12 @@ import java.util.List;
 @Repository
 public interface PlanetRepository extends JpaRepository<Planet, Long> {
     List<Planet> findByTraderId(Long traderId);
+
+    List<Planet> findByTraderIdOrderById(Long traderId);
+
+    List<Planet> findByTraderIdAndIdGreaterThanOrderById(Long traderId, Long id, Pageable pageable);
+
+    long countByTraderId(Long traderId);
     
     @Query("SELECT p FROM Planet p WHERE p.trader.id = :traderId AND p.isRebellious = true")
     List<Planet> findRebelliousPlanetsByTraderId(@Param("traderId") Long traderId);
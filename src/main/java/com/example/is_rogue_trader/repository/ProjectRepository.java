@@ -3,13 +3,31 @@ package com.example.is_rogue_trader.repository;
 import com.example.is_rogue_trader.model.entity.Project;
 import com.example.is_rogue_trader.model.enums.ProjectStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByPlanetId(Long planetId);
     List<Project> findByStatus(ProjectStatus status);
+
+    @Query("SELECT p.id FROM Project p WHERE p.planet.trader.id = :traderId AND p.status = :status ORDER BY p.id")
+    List<Long> findIdsByTraderIdAndStatus(@Param("traderId") Long traderId, @Param("status") ProjectStatus status);
+
+    @Modifying
+    @Query("UPDATE Project p SET p.status = com.example.is_rogue_trader.model.enums.ProjectStatus.IN_PROGRESS " +
+           "WHERE p.id IN :ids")
+    int startByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Project p SET p.status = com.example.is_rogue_trader.model.enums.ProjectStatus.COMPLETED, " +
+           "p.completionDate = :completionDate WHERE p.id IN :ids")
+    int completeByIds(@Param("ids") Collection<Long> ids, @Param("completionDate") LocalDateTime completionDate);
 }
 
@@ -1,13 +1,26 @@
 package com.example.is_rogue_trader.repository;
 
 import com.example.is_rogue_trader.model.entity.RogueTrader;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RogueTraderRepository extends JpaRepository<RogueTrader, Long> {
     Optional<RogueTrader> findByUserId(Long userId);
-}
 
+    // Активные торговцы - владеющие хотя бы одной планетой
+    @Query("SELECT DISTINCT p.trader.id FROM Planet p ORDER BY p.trader.id")
+    List<Long> findActiveTraderIds();
+
+    // Блокировка строки торговца до конца транзакции: циклы одной империи не пересекаются
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RogueTrader t WHERE t.id = :id")
+    Optional<RogueTrader> findByIdForUpdate(@Param("id") Long id);
+}
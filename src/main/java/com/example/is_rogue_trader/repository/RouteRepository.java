@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,6 +18,10 @@ public interface RouteRepository extends JpaRepository<Route, Long> {
            "   OR (r.fromPlanet.id = :toId AND r.toPlanet.id = :fromId)")
     List<Route> findRoutesBetweenPlanets(@Param("fromId") Long fromId, @Param("toId") Long toId);
 
+    // Маршруты, оба конца которых входят в набор планет: проверка дубликатов для пачки команд одним запросом
+    @Query("SELECT r FROM Route r WHERE r.fromPlanet.id IN :planetIds AND r.toPlanet.id IN :planetIds")
+    List<Route> findRoutesAmongPlanets(@Param("planetIds") Collection<Long> planetIds);
+
     @Query("SELECT r FROM Route r " +
            "WHERE r.fromPlanet.trader.id = :traderId OR r.toPlanet.trader.id = :traderId")
     List<Route> findByTraderId(@Param("traderId") Long traderId);
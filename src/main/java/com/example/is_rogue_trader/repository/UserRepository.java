@@ -1,13 +1,23 @@
 package com.example.is_rogue_trader.repository;
 
 import com.example.is_rogue_trader.model.entity.User;
+import com.example.is_rogue_trader.model.enums.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    List<User> findByRoleOrderById(UserRole role);
+
+    // Губернаторы планет в порядке ID планет
+    @Query("SELECT g.user FROM Governor g WHERE g.planet.id IN :planetIds ORDER BY g.planet.id")
+    List<User> findGovernorsOfPlanets(@Param("planetIds") List<Long> planetIds);
 }
 
@@ -0,0 +1,34 @@
+package com.example.is_rogue_trader.security;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Пользователь текущего запроса. {@link JwtAuthenticationFilter} кладёт в SecurityContext аутентификацию,
+ * имя которой - ID пользователя из JWT, поэтому ID из пути запроса сверяется с ним, а не принимается на веру
+ */
+public final class AuthenticatedUser {
+
+    private AuthenticatedUser() {
+    }
+
+    public static Long id() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("Требуется аутентификация");
+        }
+        try {
+            return Long.valueOf(authentication.getName());
+        } catch (NumberFormatException e) {
+            throw new AccessDeniedException("Требуется аутентификация");
+        }
+    }
+
+    // Действие над сообщениями пользователя разрешено только ему самому
+    public static void require(Long userId) {
+        if (!id().equals(userId)) {
+            throw new AccessDeniedException("Действие доступно только владельцу сообщений");
+        }
+    }
+}
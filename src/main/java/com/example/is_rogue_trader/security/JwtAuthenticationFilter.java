@@ -15,10 +15,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final Pattern EVENT_STREAM_PATH = Pattern.compile("/api/events/trader/\\d+/stream");
 
     private final JwtTokenProvider tokenProvider;
 
@@ -40,12 +42,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt, tokenProvider.getEmailFromToken(jwt))) {
-                String email = tokenProvider.getEmailFromToken(jwt);
                 Long userId = tokenProvider.getUserIdFromToken(jwt);
                 String role = tokenProvider.getRoleFromToken(jwt);
 
+                // Имя аутентификации - ID пользователя, как у STOMP-сессий (см. AuthenticatedUser)
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        email,
+                        userId.toString(),
                         null,
                         Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
                 );
@@ -64,6 +66,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
+        // EventSource cannot send headers, so only the trader event stream accepts the token as a query parameter
+        if ("GET".equals(request.getMethod()) && EVENT_STREAM_PATH.matcher(request.getRequestURI()).matches()) {
+            return request.getParameter("access_token");
+        }
         return null;
     }
 }
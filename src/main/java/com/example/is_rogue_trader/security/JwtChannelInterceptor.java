@@ -0,0 +1,63 @@
+package com.example.is_rogue_trader.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+
+/**
+ * Аутентификация STOMP-сессий по JWT из заголовка Authorization кадра CONNECT
+ * (браузер не может передать заголовок в WebSocket handshake).
+ * Именем пользователя сессии становится его ID, подписка разрешена только на личные очереди /user/**
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtTokenProvider tokenProvider;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String jwt = getJwt(accessor);
+            if (!StringUtils.hasText(jwt) || !tokenProvider.validateToken(jwt, tokenProvider.getEmailFromToken(jwt))) {
+                throw new IllegalArgumentException("Недействительный токен");
+            }
+            Long userId = tokenProvider.getUserIdFromToken(jwt);
+            String role = tokenProvider.getRoleFromToken(jwt);
+            accessor.setUser(new UsernamePasswordAuthenticationToken(
+                    userId.toString(),
+                    null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+            ));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (accessor.getUser() == null || destination == null || !destination.startsWith("/user/")) {
+                throw new IllegalArgumentException("Подписка разрешена только на личные очереди");
+            }
+        }
+        return message;
+    }
+
+    private String getJwt(StompHeaderAccessor accessor) {
+        String bearerToken = accessor.getFirstNativeHeader("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
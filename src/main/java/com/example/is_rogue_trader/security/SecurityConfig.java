@@ -40,6 +40,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         // Swagger documentation
                         .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/api-docs/**", "/v3/api-docs/**").permitAll()
+                        // WebSocket handshake (STOMP CONNECT is authenticated by JwtChannelInterceptor)
+                        .requestMatchers("/ws/**").permitAll()
                         // Error pages
                         .requestMatchers("/error").permitAll()
                         // All other requests require authentication
@@ -0,0 +1,291 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.CommandDispatchResultDTO;
+import com.example.is_rogue_trader.model.entity.Event;
+import com.example.is_rogue_trader.model.entity.Message;
+import com.example.is_rogue_trader.model.entity.Navigator;
+import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.model.entity.Project;
+import com.example.is_rogue_trader.model.entity.Route;
+import com.example.is_rogue_trader.model.entity.Upgrade;
+import com.example.is_rogue_trader.model.enums.MessageType;
+import com.example.is_rogue_trader.model.enums.ProjectStatus;
+import com.example.is_rogue_trader.repository.EventRepository;
+import com.example.is_rogue_trader.repository.MessageRepository;
+import com.example.is_rogue_trader.repository.NavigatorRepository;
+import com.example.is_rogue_trader.repository.PlanetRepository;
+import com.example.is_rogue_trader.repository.ProjectRepository;
+import com.example.is_rogue_trader.repository.RouteRepository;
+import com.example.is_rogue_trader.repository.UpgradeRepository;
+import com.example.is_rogue_trader.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Исполнение команд по типизированным параметрам сообщения. Невыполненные команды получателя
+ * загружаются одним запросом с блокировкой строк и группируются по типу: маршруты и проекты
+ * вставляются пакетами JDBC, кризисы разрешаются одним вызовом resolve_crises(),
+ * а выполненные команды отмечаются одним UPDATE через {@link MessageBulkUpdater}.
+ * Вся пачка выполняется в одной транзакции; команды, не прошедшие проверку, остаются невыполненными
+ */
+@Service
+@RequiredArgsConstructor
+public class CommandDispatcher {
+    private final MessageRepository messageRepository;
+    private final NavigatorRepository navigatorRepository;
+    private final PlanetRepository planetRepository;
+    private final UpgradeRepository upgradeRepository;
+    private final RouteRepository routeRepository;
+    private final ProjectRepository projectRepository;
+    private final EventRepository eventRepository;
+    private final EventStreamService eventStreamService;
+    private final MessageBulkUpdater messageBulkUpdater;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Выполняет команды получателя: перечисленные или, если список пуст, все невыполненные
+     * в порядке отправки (не больше MAX_BULK_MESSAGES за вызов). Выполнять команды может только сам получатель
+     */
+    @Transactional
+    public CommandDispatchResultDTO dispatch(Long receiverId, List<Long> messageIds) {
+        AuthenticatedUser.require(receiverId);
+        CommandDispatchResultDTO result = new CommandDispatchResultDTO();
+        List<Message> commands;
+        if (messageIds == null || messageIds.isEmpty()) {
+            commands = messageRepository.findPendingCommandsForUpdate(
+                    receiverId, PageRequest.of(0, MessageService.MAX_BULK_MESSAGES));
+        } else {
+            List<Long> ids = messageIds.stream().distinct().toList();
+            if (ids.size() > MessageService.MAX_BULK_MESSAGES) {
+                throw new IllegalArgumentException(
+                        String.format("Количество команд не должно превышать %d", MessageService.MAX_BULK_MESSAGES));
+            }
+            commands = messageRepository.findPendingCommandsForUpdate(receiverId, ids);
+            Set<Long> found = commands.stream().map(Message::getId).collect(Collectors.toSet());
+            ids.stream()
+                    .filter(id -> !found.contains(id))
+                    .forEach(id -> result.getFailed().put(id, "Команда не найдена или уже выполнена"));
+        }
+
+        Map<MessageType, List<Message>> byType = commands.stream().collect(Collectors.groupingBy(
+                Message::getMessageType, () -> new EnumMap<>(MessageType.class), Collectors.toList()));
+        // Проекты раньше кризисов: проверка ресурсов идёт по загруженным планетам, а resolve_crises меняет их в БД
+        createRoutes(receiverId, byType.getOrDefault(MessageType.NAVIGATION_REQUEST, List.of()), result);
+        createProjects(byType.getOrDefault(MessageType.UPGRADE_REQUEST, List.of()), result);
+        resolveCrises(byType.getOrDefault(MessageType.CRISIS_RESPONSE, List.of()), result);
+
+        List<Long> done = new ArrayList<>(result.getRoutes().keySet());
+        done.addAll(result.getProjects().keySet());
+        done.addAll(result.getCrises().keySet());
+        result.setExecuted(done.isEmpty() ? List.of() : messageBulkUpdater.markCompleted(done, receiverId));
+        return result;
+    }
+
+    // ==================== МАРШРУТЫ ====================
+
+    private void createRoutes(Long receiverId, List<Message> commands, CommandDispatchResultDTO result) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        Navigator navigator = navigatorRepository.findByUserId(receiverId).orElse(null);
+        if (navigator == null) {
+            commands.forEach(command -> result.getFailed().put(command.getId(), "Навигатор не найден"));
+            return;
+        }
+
+        Set<Long> planetIds = collectIds(commands, Message::getFromPlanetId, Message::getToPlanetId);
+        Map<Long, Planet> planets = byId(planetRepository.findAllById(planetIds), Planet::getId);
+        // Маршрут уникален в любом направлении, в том числе внутри одной пачки
+        Set<List<Long>> taken = new HashSet<>();
+        routeRepository.findRoutesAmongPlanets(planetIds).forEach(route ->
+                taken.add(routeKey(route.getFromPlanet().getId(), route.getToPlanet().getId())));
+
+        Map<Message, Route> routes = new LinkedHashMap<>();
+        for (Message command : commands) {
+            Planet from = planets.get(command.getFromPlanetId());
+            Planet to = planets.get(command.getToPlanetId());
+            String error = null;
+            if (command.getFromPlanetId() == null || command.getToPlanetId() == null) {
+                error = "Команда не содержит планеты маршрута";
+            } else if (from == null) {
+                error = "Планета отправления не найдена";
+            } else if (to == null) {
+                error = "Планета назначения не найдена";
+            } else if (!taken.add(routeKey(from.getId(), to.getId()))) {
+                error = "Маршрут между этими планетами уже существует";
+            }
+            if (error != null) {
+                result.getFailed().put(command.getId(), error);
+                continue;
+            }
+
+            Route route = new Route();
+            route.setFromPlanet(from);
+            route.setToPlanet(to);
+            route.setNavigator(navigator);
+            route.setIsStable(true);
+            routes.put(command, route);
+        }
+
+        routeRepository.saveAll(routes.values());
+        routes.forEach((command, route) -> result.getRoutes().put(command.getId(), route.getId()));
+    }
+
+    private static List<Long> routeKey(Long planetId, Long otherPlanetId) {
+        return planetId <= otherPlanetId ? List.of(planetId, otherPlanetId) : List.of(otherPlanetId, planetId);
+    }
+
+    // ==================== ПРОЕКТЫ ====================
+
+    private void createProjects(List<Message> commands, CommandDispatchResultDTO result) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        Map<Long, Planet> planets = byId(
+                planetRepository.findAllById(collectIds(commands, Message::getPlanetId)), Planet::getId);
+        Map<Long, Upgrade> upgrades = byId(
+                upgradeRepository.findAllById(collectIds(commands, Message::getUpgradeId)), Upgrade::getId);
+
+        // Остаток ресурсов планеты внутри пачки: триггер check_project_resources списывает стоимость
+        // при каждой вставке и отклонил бы всю пачку, поэтому те же проверки выполняются заранее
+        Map<Long, BigDecimal[]> remaining = new HashMap<>();
+        Map<Message, Project> projects = new LinkedHashMap<>();
+        for (Message command : commands) {
+            Planet planet = planets.get(command.getPlanetId());
+            Upgrade upgrade = upgrades.get(command.getUpgradeId());
+            String error = null;
+            if (command.getPlanetId() == null || command.getUpgradeId() == null) {
+                error = "Команда не содержит планету и улучшение";
+            } else if (planet == null) {
+                error = "Планета не найдена";
+            } else if (upgrade == null) {
+                error = "Улучшение не найдено";
+            } else if (planet.getPlanetType() != upgrade.getSuitableTypes()) {
+                error = "Улучшение несовместимо с типом планеты";
+            } else if (!withdraw(remaining.computeIfAbsent(planet.getId(), id -> new BigDecimal[]{
+                    planet.getWealth(), planet.getIndustry(), planet.getResources()}), upgrade)) {
+                error = "Недостаточно ресурсов на планете";
+            }
+            if (error != null) {
+                result.getFailed().put(command.getId(), error);
+                continue;
+            }
+
+            Project project = new Project();
+            project.setPlanet(planet);
+            project.setUpgrade(upgrade);
+            project.setStatus(ProjectStatus.PLANNED);
+            projects.put(command, project);
+        }
+
+        projectRepository.saveAll(projects.values());
+        projects.forEach((command, project) -> result.getProjects().put(command.getId(), project.getId()));
+    }
+
+    // Списывает стоимость улучшения с остатка {богатство, индустрия, ресурсы}, если его хватает
+    private static boolean withdraw(BigDecimal[] remaining, Upgrade upgrade) {
+        BigDecimal[] cost = {upgrade.getCostWealth(), upgrade.getCostIndustry(), upgrade.getCostResources()};
+        for (int i = 0; i < cost.length; i++) {
+            if (remaining[i].compareTo(cost[i]) < 0) {
+                return false;
+            }
+        }
+        for (int i = 0; i < cost.length; i++) {
+            remaining[i] = remaining[i].subtract(cost[i]);
+        }
+        return true;
+    }
+
+    // ==================== КРИЗИСЫ ====================
+
+    private void resolveCrises(List<Message> commands, CommandDispatchResultDTO result) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        Map<Long, Event> events = byId(
+                eventRepository.findAllWithPlanetByIdIn(collectIds(commands, Message::getEventId)), Event::getId);
+
+        Map<Message, Event> claims = new LinkedHashMap<>();
+        Set<Long> claimed = new HashSet<>();
+        for (Message command : commands) {
+            Event event = events.get(command.getEventId());
+            String error = null;
+            if (command.getEventId() == null || command.getCrisisAction() == null) {
+                error = "Команда не содержит кризис и действие";
+            } else if (event == null) {
+                error = "Событие не найдено";
+            } else if (Boolean.TRUE.equals(event.getResolved()) || !claimed.add(event.getId())) {
+                error = "Кризис уже разрешён";
+            }
+            if (error != null) {
+                result.getFailed().put(command.getId(), error);
+                continue;
+            }
+            claims.put(command, event);
+        }
+        if (claims.isEmpty()) {
+            return;
+        }
+
+        List<Message> resolving = new ArrayList<>(claims.keySet());
+        @SuppressWarnings("unchecked")
+        List<Number> resolvedIds = entityManager.createNativeQuery("SELECT * FROM resolve_crises(" +
+                        "CAST(:eventIds AS BIGINT[]), CAST(:actions AS VARCHAR[]), " +
+                        "CAST(:wealth AS DECIMAL[]), CAST(:industry AS DECIMAL[]))")
+                .setParameter("eventIds", resolving.stream().map(Message::getEventId).toArray(Long[]::new))
+                .setParameter("actions", resolving.stream().map(Message::getCrisisAction).toArray(String[]::new))
+                .setParameter("wealth", resolving.stream().map(Message::getResourcesWealth).toArray(BigDecimal[]::new))
+                .setParameter("industry", resolving.stream().map(Message::getResourcesIndustry).toArray(BigDecimal[]::new))
+                .getResultList();
+        Set<Long> resolved = resolvedIds.stream().map(Number::longValue).collect(Collectors.toSet());
+
+        // Функция уже обновила события в БД: сущности отсоединяются, чтобы не записывать их повторно.
+        // Выполненными считаются только кризисы, которые функция действительно разрешила
+        claims.forEach((command, event) -> {
+            if (!resolved.contains(event.getId())) {
+                result.getFailed().put(command.getId(), "Кризис уже разрешён или действие неизвестно");
+                return;
+            }
+            entityManager.detach(event);
+            event.setResolved(true);
+            eventStreamService.publishResolved(event);
+            result.getCrises().put(command.getId(), event.getId());
+        });
+    }
+
+    // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
+
+    @SafeVarargs
+    private static Set<Long> collectIds(List<Message> commands, Function<Message, Long>... fields) {
+        Set<Long> ids = new HashSet<>();
+        for (Message command : commands) {
+            for (Function<Message, Long> field : fields) {
+                ids.add(field.apply(command));
+            }
+        }
+        ids.remove(null);
+        return ids;
+    }
+
+    private static <T> Map<Long, T> byId(List<T> entities, Function<T, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
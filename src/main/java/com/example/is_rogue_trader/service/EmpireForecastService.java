@@ -0,0 +1,244 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.EmpireForecastDTO;
+import com.example.is_rogue_trader.dto.PlanetForecastDTO;
+import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.model.entity.RogueTrader;
+import com.example.is_rogue_trader.repository.PlanetModifierRepository;
+import com.example.is_rogue_trader.repository.PlanetRepository;
+import com.example.is_rogue_trader.repository.RogueTraderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прогноз империи методом Монте-Карло: тысячи независимых прогонов правил TimeService
+ * (налоги, события, дрейф лояльности, бунты) над снимком планет торговца.
+ * Прогоны распределяются по fork-join пулу, в БД ничего не записывается,
+ * а при исчерпании бюджета времени результат считается по завершённым прогонам
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmpireForecastService {
+    private static final int MAX_CYCLES = 100;
+    private static final int MAX_RUNS = 100_000;
+    private static final long MAX_BUDGET_MS = 10_000;
+    private static final int RUNS_PER_TASK = 64;
+
+    private final RogueTraderRepository rogueTraderRepository;
+    private final PlanetRepository planetRepository;
+    private final PlanetModifierRepository planetModifierRepository;
+
+    @Value("${forecast.parallelism:0}") // 0 - по числу ядер
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void startPool() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * Прогнозирует вероятность бунта каждой планеты в течение заданного числа циклов
+     * и распределение казны торговца
+     */
+    public EmpireForecastDTO forecast(Long traderId, int cycles, int runs, long budgetMs, Long seed) {
+        if (cycles < 1 || cycles > MAX_CYCLES) {
+            throw new IllegalArgumentException(
+                    String.format("Количество циклов должно быть от 1 до %d", MAX_CYCLES));
+        }
+        if (runs < 1 || runs > MAX_RUNS) {
+            throw new IllegalArgumentException(
+                    String.format("Количество прогонов должно быть от 1 до %d", MAX_RUNS));
+        }
+        if (budgetMs < 1 || budgetMs > MAX_BUDGET_MS) {
+            throw new IllegalArgumentException(
+                    String.format("Бюджет времени должен быть от 1 до %d мс", MAX_BUDGET_MS));
+        }
+
+        RogueTrader trader = rogueTraderRepository.findById(traderId)
+                .orElseThrow(() -> new RuntimeException("Торговец не найден"));
+        List<Planet> planets = planetRepository.findByTraderIdOrderById(traderId);
+        PlanetSimulationCore snapshot = PlanetSimulationCore.fromPlanets(
+                planets, PlanetModifiers.of(planetModifierRepository.findByTraderId(traderId)));
+
+        long forecastSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        ForecastResult result = pool.invoke(new ForecastTask(
+                snapshot, cycles, 0, runs, new SplittableRandom(forecastSeed), deadline));
+
+        log.debug("Прогноз торговца {}: {} из {} прогонов по {} циклов", traderId, result.completedRuns, runs, cycles);
+        return toDto(trader, planets, cycles, runs, forecastSeed, result);
+    }
+
+    private EmpireForecastDTO toDto(RogueTrader trader, List<Planet> planets, int cycles, int runs,
+                                    long seed, ForecastResult result) {
+        int completed = result.completedRuns;
+
+        List<PlanetForecastDTO> planetForecasts = new ArrayList<>(planets.size());
+        for (int i = 0; i < planets.size(); i++) {
+            Planet planet = planets.get(i);
+            planetForecasts.add(new PlanetForecastDTO(
+                    planet.getId(),
+                    planet.getName(),
+                    planet.getLoyalty(),
+                    completed > 0 ? (double) result.rebellions[i] / completed : null,
+                    completed > 0 ? (double) result.events[i] / completed : null));
+        }
+
+        EmpireForecastDTO dto = new EmpireForecastDTO();
+        dto.setTraderId(trader.getId());
+        dto.setCycles(cycles);
+        dto.setRequestedRuns(runs);
+        dto.setCompletedRuns(completed);
+        dto.setBudgetExhausted(completed < runs);
+        dto.setSeed(seed);
+        dto.setPlanets(planetForecasts);
+
+        if (completed > 0) {
+            long[] taxes = Arrays.copyOf(result.taxes, completed);
+            Arrays.sort(taxes);
+            BigDecimal wealth = trader.getTotalWealth();
+            // Сумма налогов прогонов в миллионных долях может не поместиться в long
+            BigDecimal totalTax = BigDecimal.ZERO;
+            for (long tax : taxes) {
+                totalTax = totalTax.add(BigDecimal.valueOf(tax, 6));
+            }
+            dto.setWealthMean(wealth.add(totalTax.divide(BigDecimal.valueOf(completed), 2, RoundingMode.HALF_UP)));
+            dto.setWealthP5(projectedWealth(wealth, taxes, 0.05));
+            dto.setWealthP50(projectedWealth(wealth, taxes, 0.50));
+            dto.setWealthP95(projectedWealth(wealth, taxes, 0.95));
+        }
+        return dto;
+    }
+
+    // Перцентиль методом ближайшего ранга по отсортированным налогам прогонов
+    private static BigDecimal projectedWealth(BigDecimal wealth, long[] sortedTaxes, double percentile) {
+        int rank = (int) Math.ceil(percentile * sortedTaxes.length);
+        long tax = sortedTaxes[Math.max(0, rank - 1)];
+        return wealth.add(BigDecimal.valueOf(tax, 6)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Диапазон прогонов [from, to): делится пополам, пока не станет меньше RUNS_PER_TASK.
+     * Каждая половина получает собственный поток случайных чисел через split(),
+     * поэтому результат при том же seed не зависит от распределения задач по потокам
+     */
+    private static class ForecastTask extends RecursiveTask<ForecastResult> {
+        private final PlanetSimulationCore snapshot;
+        private final int cycles;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+        private final long deadline;
+
+        ForecastTask(PlanetSimulationCore snapshot, int cycles, int from, int to,
+                     SplittableRandom random, long deadline) {
+            this.snapshot = snapshot;
+            this.cycles = cycles;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected ForecastResult compute() {
+            if (to - from <= RUNS_PER_TASK) {
+                return simulate();
+            }
+            int mid = (from + to) >>> 1;
+            ForecastTask left = new ForecastTask(snapshot, cycles, from, mid, random.split(), deadline);
+            ForecastTask right = new ForecastTask(snapshot, cycles, mid, to, random, deadline);
+            left.fork();
+            ForecastResult rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+
+        private ForecastResult simulate() {
+            ForecastResult result = new ForecastResult(snapshot.size(), to - from);
+            // Планеты, на которых за прогон вспыхнул бунт; мятежные уже в снимке не считаются
+            BitSet rebelled = new BitSet(snapshot.size());
+            // Одно ядро на задачу: перед каждым прогоном состояние планет восстанавливается из снимка без аллокаций
+            PlanetSimulationCore core = snapshot.copy();
+            for (int run = from; run < to && System.nanoTime() < deadline; run++) {
+                core.restore(snapshot);
+                rebelled.clear();
+                long tax = 0;
+                for (int cycle = 0; cycle < cycles; cycle++) {
+                    core.startCycle();
+                    core.collectTaxes();
+                    core.generateEvents(random);
+                    core.updateLoyalty(random);
+                    core.checkRebellions();
+
+                    tax += core.getCollectedTaxMicros();
+                    for (int event = 0; event < core.getEventCount(); event++) {
+                        if (core.isRebellionEvent(event)) {
+                            rebelled.set(core.getEventPlanetIndex(event));
+                        } else {
+                            result.events[core.getEventPlanetIndex(event)]++;
+                        }
+                    }
+                }
+
+                for (int i = rebelled.nextSetBit(0); i >= 0; i = rebelled.nextSetBit(i + 1)) {
+                    result.rebellions[i]++;
+                }
+                result.taxes[result.completedRuns++] = tax;
+            }
+            return result;
+        }
+    }
+
+    // Накопленный результат диапазона прогонов, налоги в миллионных долях
+    private static class ForecastResult {
+        private final long[] rebellions;
+        private final long[] events;
+        private long[] taxes;
+        private int completedRuns;
+
+        ForecastResult(int planets, int runs) {
+            this.rebellions = new long[planets];
+            this.events = new long[planets];
+            this.taxes = new long[runs];
+        }
+
+        ForecastResult merge(ForecastResult other) {
+            for (int i = 0; i < rebellions.length; i++) {
+                rebellions[i] += other.rebellions[i];
+                events[i] += other.events[i];
+            }
+            long[] merged = Arrays.copyOf(taxes, completedRuns + other.completedRuns);
+            System.arraycopy(other.taxes, 0, merged, completedRuns, other.completedRuns);
+            taxes = merged;
+            completedRuns += other.completedRuns;
+            return this;
+        }
+    }
+}
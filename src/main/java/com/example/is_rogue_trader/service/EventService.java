@@ -18,6 +18,7 @@ import java.util.List;
 public class EventService {
     private final EventRepository eventRepository;
     private final PlanetRepository planetRepository;
+    private final EventStreamService eventStreamService;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -57,7 +58,9 @@ public class EventService {
                 .orElseThrow(() -> new RuntimeException("Планета не найдена"));
         event.setPlanet(planet);
         event.setResolved(false);
-        return eventRepository.save(event);
+        Event savedEvent = eventRepository.save(event);
+        eventStreamService.publishCreated(savedEvent);
+        return savedEvent;
     }
 
     /**
@@ -88,5 +91,6 @@ public class EventService {
 
         // Функция уже обновила событие в БД, обновляем в контексте JPA
         entityManager.refresh(event);
+        eventStreamService.publishResolved(event);
     }
 }
\ No newline at end of file
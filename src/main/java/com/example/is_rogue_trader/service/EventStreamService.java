@@ -0,0 +1,244 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.EventNotificationDTO;
+import com.example.is_rogue_trader.model.entity.Event;
+import com.example.is_rogue_trader.model.enums.EventChangeType;
+import com.example.is_rogue_trader.repository.RogueTraderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SSE-потоки событий торговцев. Изменения публикуются сервисами внутри транзакции
+ * и попадают в поток только после её фиксации.
+ * Каждый торговец хранит последние events.stream.history элементов с возрастающими ID,
+ * поэтому переподключение с Last-Event-ID догружает пропущенное без полной перезагрузки.
+ * У подписчика ограниченный буфер: медленный клиент при переполнении отключается
+ * и продолжает с последнего полученного ID
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventStreamService {
+    private static final String ITEM_EVENT = "event";
+    private static final String RESET_EVENT = "reset";
+
+    private final RogueTraderRepository rogueTraderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${events.stream.history:1000}")
+    private int historySize;
+
+    @Value("${events.stream.buffer:256}")
+    private int bufferSize;
+
+    @Value("${events.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${events.stream.pool-size:2}")
+    private int poolSize;
+
+    // ID элементов уникальны в пределах запуска: после перезапуска клиент получает reset
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Long, TraderStream> streams = new ConcurrentHashMap<>();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void startSender() {
+        sender = Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("event-stream-"));
+    }
+
+    @PreDestroy
+    public void stopSender() {
+        sender.shutdown();
+        streams.values().forEach(stream -> stream.subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    // ==================== ПУБЛИКАЦИЯ ====================
+
+    public void publishCreated(Event event) {
+        eventPublisher.publishEvent(toNotification(EventChangeType.CREATED, event));
+    }
+
+    public void publishCreated(Collection<Event> events) {
+        events.forEach(this::publishCreated);
+    }
+
+    public void publishResolved(Event event) {
+        eventPublisher.publishEvent(toNotification(EventChangeType.RESOLVED, event));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventChanged(EventNotificationDTO notification) {
+        TraderStream stream = streams.computeIfAbsent(notification.getTraderId(), id -> new TraderStream());
+        // Под блокировкой потока: элементы попадают в буферы подписчиков в порядке ID
+        synchronized (stream) {
+            StreamItem item = new StreamItem(++stream.lastSeq, notification);
+            stream.history.addLast(item);
+            if (stream.history.size() > historySize) {
+                stream.history.removeFirst();
+            }
+            stream.subscribers.forEach(subscriber -> enqueue(stream, subscriber, item));
+        }
+    }
+
+    // ==================== ПОДПИСКА ====================
+
+    public SseEmitter subscribe(Long traderId, String lastEventId) {
+        if (!rogueTraderRepository.existsById(traderId)) {
+            throw new RuntimeException("Торговец не найден");
+        }
+
+        TraderStream stream = streams.computeIfAbsent(traderId, id -> new TraderStream());
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> stream.subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> stream.subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> stream.subscribers.remove(subscriber));
+
+        synchronized (stream) {
+            List<StreamItem> missed = missedItems(stream, lastEventId);
+            stream.subscribers.add(subscriber);
+            if (missed == null) {
+                // Пропущенное уже вытеснено из истории или поток перезапущен - клиент перезагружает данные
+                subscriber.reset = true;
+                drain(stream, subscriber);
+            } else {
+                missed.forEach(item -> enqueue(stream, subscriber, item));
+            }
+        }
+        return subscriber.emitter;
+    }
+
+    // null - догрузить по Last-Event-ID невозможно
+    private List<StreamItem> missedItems(TraderStream stream, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        String[] parts = lastEventId.split("-");
+        long seq;
+        try {
+            if (parts.length != 2 || Long.parseLong(parts[0]) != epoch) {
+                return null;
+            }
+            seq = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (seq > stream.lastSeq) {
+            return null;
+        }
+        StreamItem oldest = stream.history.peekFirst();
+        if (seq < stream.lastSeq && (oldest == null || oldest.seq > seq + 1)) {
+            return null;
+        }
+        return stream.history.stream().filter(item -> item.seq > seq).toList();
+    }
+
+    // ==================== ДОСТАВКА ====================
+
+    private void enqueue(TraderStream stream, Subscriber subscriber, StreamItem item) {
+        if (!subscriber.buffer.offer(item)) {
+            log.debug("Буфер подписчика переполнен, поток закрыт до переподключения");
+            stream.subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        drain(stream, subscriber);
+    }
+
+    // Один поток отправки на подписчика: порядок элементов сохраняется
+    private void drain(TraderStream stream, Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(stream, subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void send(TraderStream stream, Subscriber subscriber) {
+        try {
+            if (subscriber.reset) {
+                subscriber.reset = false;
+                subscriber.emitter.send(SseEmitter.event().name(RESET_EVENT).data(""));
+            }
+            StreamItem item;
+            while ((item = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(epoch + "-" + item.seq)
+                        .name(ITEM_EVENT)
+                        .data(item.notification));
+            }
+        } catch (Exception e) {
+            stream.subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Элемент мог прийти между последним poll() и сбросом флага
+        if (!subscriber.buffer.isEmpty()) {
+            drain(stream, subscriber);
+        }
+    }
+
+    private EventNotificationDTO toNotification(EventChangeType changeType, Event event) {
+        return new EventNotificationDTO(
+                changeType,
+                event.getPlanet().getTrader().getId(),
+                event.getId(),
+                event.getPlanet().getId(),
+                event.getPlanet().getName(),
+                event.getEventType(),
+                event.getSeverity(),
+                event.getDescription(),
+                event.getResolved(),
+                event.getOccurredAt()
+        );
+    }
+
+    private static class TraderStream {
+        private final ArrayDeque<StreamItem> history = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private long lastSeq;
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamItem> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean reset;
+
+        Subscriber(SseEmitter emitter, BlockingQueue<StreamItem> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+
+    private record StreamItem(long seq, EventNotificationDTO notification) {
+    }
+}
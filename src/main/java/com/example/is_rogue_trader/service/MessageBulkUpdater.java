@@ -0,0 +1,117 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.MessageNotificationDTO;
+import com.example.is_rogue_trader.model.enums.MessageEventType;
+import com.example.is_rogue_trader.model.enums.MessageType;
+import com.example.is_rogue_trader.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Массовые изменения сообщений одним UPDATE ... RETURNING. Проверка владения и состояния выполняется в SQL
+ * для пользователя текущего запроса ({@link AuthenticatedUser}), счётчики message_stats и pending_command_counters обновляют триггеры в том же операторе,
+ * а по возвращённым строкам публикуются уведомления, которые уходят после фиксации транзакции
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageBulkUpdater {
+    private static final String RETURNING = """
+             RETURNING id, sender_id, receiver_id, message_type, command_id, content, distorted,
+                       delivered, completed, sent_at, completion_date, deliver_at
+            """;
+
+    private static final String DELIVER_SQL =
+            "UPDATE messages SET delivered = TRUE WHERE id IN (:ids) AND delivered = FALSE" + RETURNING;
+
+    private static final String DELIVER_OWNED_SQL =
+            "UPDATE messages SET delivered = TRUE WHERE id IN (:ids) AND delivered = FALSE " +
+            "AND (sender_id = :userId OR receiver_id = :userId)" + RETURNING;
+
+    private static final String COMPLETE_OWNED_SQL =
+            "UPDATE messages SET completed = TRUE, completion_date = LOCALTIMESTAMP " +
+            "WHERE id IN (:ids) AND completed = FALSE AND receiver_id = :userId " +
+            "AND message_type IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE')" + RETURNING;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Доставка по прибытии из варпа, без проверки владельца
+    @Transactional
+    public List<Long> markDelivered(Collection<Long> ids) {
+        return update(DELIVER_SQL, ids, null, MessageEventType.DELIVERED);
+    }
+
+    // Доставка сообщений, которые пользователь отправил или получил
+    @Transactional
+    public List<Long> markDelivered(Collection<Long> ids, Long userId) {
+        AuthenticatedUser.require(userId);
+        return update(DELIVER_OWNED_SQL, ids, userId, MessageEventType.DELIVERED);
+    }
+
+    // Выполнение команд, адресованных пользователю
+    @Transactional
+    public List<Long> markCompleted(Collection<Long> ids, Long userId) {
+        AuthenticatedUser.require(userId);
+        return update(COMPLETE_OWNED_SQL, ids, userId, MessageEventType.COMPLETED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> update(String sql, Collection<Long> ids, Long userId, MessageEventType eventType) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.setParameterList("ids", ids);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        List<Object[]> rows = query
+                .addScalar("id", Long.class)
+                .addScalar("sender_id", Long.class)
+                .addScalar("receiver_id", Long.class)
+                .addScalar("message_type", String.class)
+                .addScalar("command_id", Long.class)
+                .addScalar("content", String.class)
+                .addScalar("distorted", Boolean.class)
+                .addScalar("delivered", Boolean.class)
+                .addScalar("completed", Boolean.class)
+                .addScalar("sent_at", LocalDateTime.class)
+                .addScalar("completion_date", LocalDateTime.class)
+                .addScalar("deliver_at", LocalDateTime.class)
+                .getResultList();
+
+        List<Long> updated = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            eventPublisher.publishEvent(toNotification(eventType, row));
+            updated.add((Long) row[0]);
+        }
+        return updated;
+    }
+
+    private static MessageNotificationDTO toNotification(MessageEventType eventType, Object[] row) {
+        return new MessageNotificationDTO(
+                eventType,
+                (Long) row[0],
+                (Long) row[1],
+                (Long) row[2],
+                row[3] != null ? MessageType.valueOf((String) row[3]) : null,
+                (Long) row[4],
+                (String) row[5],
+                (Boolean) row[6],
+                (Boolean) row[7],
+                (Boolean) row[8],
+                (LocalDateTime) row[9],
+                (LocalDateTime) row[10],
+                (LocalDateTime) row[11]
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.is_rogue_trader.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция keyset-пагинации сообщений: ключ сортировки (время, ID) последней строки страницы.
+ * Клиент получает курсор непрозрачной строкой Base64 и передаёт его обратно без изменений
+ */
+public final class MessageCursor {
+    // Курсор первой страницы: любое сообщение строго меньше этой пары
+    public static final MessageCursor FIRST = new MessageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime at;
+    private final Long id;
+
+    private MessageCursor(LocalDateTime at, Long id) {
+        this.at = at;
+        this.id = id;
+    }
+
+    public static MessageCursor of(LocalDateTime at, Long id) {
+        return new MessageCursor(at, id);
+    }
+
+    public static MessageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new MessageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+
+    public String encode() {
+        String raw = at.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getAt() {
+        return at;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.MessageNotificationDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Рассылка уведомлений о сообщениях по STOMP. Уведомление публикуется MessageService внутри
+ * транзакции и отправляется только после её фиксации, поэтому клиент не увидит откаченное изменение
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageNotificationService {
+    public static final String MESSAGES_QUEUE = "/queue/messages";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageChanged(MessageNotificationDTO notification) {
+        send(notification.getSenderId(), notification);
+        if (!notification.getReceiverId().equals(notification.getSenderId())) {
+            send(notification.getReceiverId(), notification);
+        }
+    }
+
+    // Имя пользователя STOMP-сессии - его ID, см. JwtChannelInterceptor
+    private void send(Long userId, MessageNotificationDTO notification) {
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), MESSAGES_QUEUE, notification);
+        } catch (Exception e) {
+            log.warn("Уведомление о сообщении {} для пользователя {} не отправлено: {}",
+                    notification.getMessageId(), userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.MessageDTO;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница сообщений keyset-пагинации. Репозиторий читает на одну строку больше лимита:
+ * если она есть, следующая страница существует и начинается после последней строки текущей.
+ * Тело ответа остаётся массивом сообщений, курсор следующей страницы передаётся заголовком
+ */
+public final class MessagePage {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<MessageDTO> messages;
+    private final String nextCursor;
+
+    private MessagePage(List<MessageDTO> messages, String nextCursor) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+
+    static MessagePage of(List<MessageDTO> rows, int limit, Function<MessageDTO, LocalDateTime> sortKey) {
+        if (rows.size() <= limit) {
+            return new MessagePage(rows, null);
+        }
+        List<MessageDTO> messages = rows.subList(0, limit);
+        MessageDTO last = messages.get(limit - 1);
+        return new MessagePage(messages, MessageCursor.of(sortKey.apply(last), last.getId()).encode());
+    }
+
+    // Страница с готовым курсором, когда ключ сортировки не входит в MessageDTO (ранг поиска)
+    static MessagePage of(List<MessageDTO> messages, String nextCursor) {
+        return new MessagePage(messages, nextCursor);
+    }
+
+    public List<MessageDTO> getMessages() {
+        return messages;
+    }
+
+    // null - последняя страница
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public ResponseEntity<List<MessageDTO>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(messages);
+    }
+}
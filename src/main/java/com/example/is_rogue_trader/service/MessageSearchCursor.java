@@ -0,0 +1,53 @@
+package com.example.is_rogue_trader.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция keyset-пагинации результатов поиска: ранг и ID последней строки страницы.
+ * Ранг ts_rank_cd имеет тип real, поэтому хранится во float и передаётся в SQL без потери точности
+ */
+public final class MessageSearchCursor {
+    private static final char SEPARATOR = '|';
+
+    private final float rank;
+    private final long id;
+
+    private MessageSearchCursor(float rank, long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public static MessageSearchCursor of(float rank, long id) {
+        return new MessageSearchCursor(rank, id);
+    }
+
+    // null - первая страница
+    public static MessageSearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new MessageSearchCursor(
+                    Float.parseFloat(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+
+    public String encode() {
+        String raw = Float.toString(rank) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.MessageDTO;
+import com.example.is_rogue_trader.dto.MessageSearchFilter;
+import com.example.is_rogue_trader.repository.MessageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск сообщений. Столбец content_search (tsvector по русской и английской конфигурациям)
+ * вычисляет PostgreSQL при записи, совпадения находит GIN-индекс, а ts_rank_cd ранжирует их без повторного
+ * разбора текста. Условия фильтров попадают в SQL, только если заданы, поэтому планировщик может совместить
+ * GIN-индекс с индексами отправителя и получателя. Страница ID читается keyset по (ранг, ID),
+ * а сами сообщения - вторым запросом через проекцию {@link MessageDTO}
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageSearcher {
+    private final MessageRepository messageRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MessagePage search(MessageSearchFilter filter, MessageSearchCursor after, int limit) {
+        List<Object[]> hits = findRankedIds(filter, after, limit + 1);
+
+        String nextCursor = null;
+        if (hits.size() > limit) {
+            hits = hits.subList(0, limit);
+            Object[] last = hits.get(limit - 1);
+            nextCursor = MessageSearchCursor.of((Float) last[1], (Long) last[0]).encode();
+        }
+        if (hits.isEmpty()) {
+            return MessagePage.of(List.of(), null);
+        }
+
+        // Сообщения приходят без порядка, порядок ранжирования восстанавливается по странице ID
+        List<Long> ids = hits.stream().map(hit -> (Long) hit[0]).toList();
+        Map<Long, MessageDTO> messages = messageRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(MessageDTO::getId, Function.identity()));
+        return MessagePage.of(hits.stream()
+                .map(hit -> messages.get((Long) hit[0]))
+                .filter(Objects::nonNull)
+                .toList(), nextCursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> findRankedIds(MessageSearchFilter filter, MessageSearchCursor after, int rows) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, rank FROM (
+                    SELECT m.id, ts_rank_cd(m.content_search, q.query) AS rank
+                    FROM messages m,
+                         (SELECT websearch_to_tsquery('russian', :text) || websearch_to_tsquery('english', :text) AS query) q
+                    WHERE m.content_search @@ q.query
+                """);
+        if (filter.getSenderId() != null) {
+            sql.append(" AND m.sender_id = :senderId");
+        }
+        if (filter.getReceiverId() != null) {
+            sql.append(" AND m.receiver_id = :receiverId");
+        }
+        if (filter.getUserId() != null) {
+            sql.append(" AND (m.sender_id = :userId OR m.receiver_id = :userId)");
+        }
+        if (filter.getMessageType() != null) {
+            sql.append(" AND m.message_type = :messageType");
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND m.sent_at >= :from");
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND m.sent_at < :to");
+        }
+        sql.append(") ranked");
+        if (after != null) {
+            sql.append(" WHERE (rank, id) < (:rank, :id)");
+        }
+        sql.append(" ORDER BY rank DESC, id DESC LIMIT :rows");
+
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql.toString()).unwrap(NativeQuery.class);
+        query.setParameter("text", filter.getQuery());
+        if (filter.getSenderId() != null) {
+            query.setParameter("senderId", filter.getSenderId());
+        }
+        if (filter.getReceiverId() != null) {
+            query.setParameter("receiverId", filter.getReceiverId());
+        }
+        if (filter.getUserId() != null) {
+            query.setParameter("userId", filter.getUserId());
+        }
+        if (filter.getMessageType() != null) {
+            query.setParameter("messageType", filter.getMessageType().name());
+        }
+        if (filter.getFrom() != null) {
+            query.setParameter("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            query.setParameter("to", filter.getTo());
+        }
+        if (after != null) {
+            query.setParameter("rank", after.getRank());
+            query.setParameter("id", after.getId());
+        }
+        query.setParameter("rows", rows);
+        return query
+                .addScalar("id", Long.class)
+                .addScalar("rank", Float.class)
+                .getResultList();
+    }
+}
@@ -1,25 +1,53 @@
 package com.example.is_rogue_trader.service;
 
+import com.example.is_rogue_trader.dto.BroadcastMessageRequest;
+import com.example.is_rogue_trader.dto.CommandPayload;
+import com.example.is_rogue_trader.dto.MessageDTO;
+import com.example.is_rogue_trader.dto.MessageNotificationDTO;
+import com.example.is_rogue_trader.dto.MessageSearchFilter;
 import com.example.is_rogue_trader.model.entity.Message;
+import com.example.is_rogue_trader.model.entity.MessageStats;
 import com.example.is_rogue_trader.model.entity.User;
+import com.example.is_rogue_trader.model.enums.MessageEventType;
 import com.example.is_rogue_trader.model.enums.MessageType;
+import com.example.is_rogue_trader.model.enums.UserRole;
+import com.example.is_rogue_trader.repository.AstropathRepository;
 import com.example.is_rogue_trader.repository.MessageRepository;
+import com.example.is_rogue_trader.repository.MessageStatsRepository;
 import com.example.is_rogue_trader.repository.UserRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MessageService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BROADCAST_RECIPIENTS = 1000;
+    public static final int MAX_BULK_MESSAGES = 1000;
+
     private final MessageRepository messageRepository;
+    private final MessageStatsRepository messageStatsRepository;
     private final UserRepository userRepository;
+    private final AstropathRepository astropathRepository;
+    private final WarpDeliveryService warpDeliveryService;
+    private final MessageBulkUpdater messageBulkUpdater;
+    private final MessageSearcher messageSearcher;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -29,21 +57,201 @@ public class MessageService {
                                MessageType messageType, Long commandId,
                                BigDecimal resourcesWealth, BigDecimal resourcesIndustry,
                                BigDecimal resourcesResources, BigDecimal distortionChance) {
+        return sendMessage(senderId, receiverId, content, messageType, commandId, null,
+                resourcesWealth, resourcesIndustry, resourcesResources, distortionChance);
+    }
+
+    /**
+     * Отправляет сообщение с типизированными параметрами команды, которые исполняет {@link CommandDispatcher}
+     */
+    @Transactional
+    public Integer sendMessage(Long senderId, Long receiverId, String content,
+                               MessageType messageType, Long commandId, CommandPayload payload,
+                               BigDecimal resourcesWealth, BigDecimal resourcesIndustry,
+                               BigDecimal resourcesResources, BigDecimal distortionChance) {
 
         User sender = userRepository.findById(senderId)
                 .orElseThrow(() -> new RuntimeException("Отправитель не найден"));
         User receiver = userRepository.findById(receiverId)
                 .orElseThrow(() -> new RuntimeException("Получатель не найден"));
 
+        LocalDateTime sentAt = LocalDateTime.now();
+        Message message = newMessage(sender, receiver, content, messageType, commandId, payload,
+                resourcesWealth, resourcesIndustry, resourcesResources, distortionChance,
+                sentAt, warpArrivalTime(sender, sentAt));
+
+        Message savedMessage = messageRepository.save(message);
+        publish(MessageEventType.SENT, savedMessage);
+        return savedMessage.getId().intValue();
+    }
+
+    /**
+     * Рассылка одного сообщения нескольким получателям: получатели загружаются одним запросом,
+     * искажение варпа применяется к каждому сообщению отдельно, а все сообщения вставляются пакетами JDBC.
+     * Возвращает ID сообщений в порядке получателей
+     */
+    @Transactional
+    public List<Long> broadcastMessage(BroadcastMessageRequest request) {
+        User sender = userRepository.findById(request.getSenderId())
+                .orElseThrow(() -> new RuntimeException("Отправитель не найден"));
+        List<User> receivers = resolveRecipients(request, sender.getId());
+
+        LocalDateTime sentAt = LocalDateTime.now();
+        LocalDateTime deliverAt = warpArrivalTime(sender, sentAt);
+        List<Message> messages = new ArrayList<>(receivers.size());
+        for (User receiver : receivers) {
+            messages.add(newMessage(sender, receiver, request.getContent(), request.getMessageType(),
+                    request.getCommandId(), request.getPayload(), request.getResourcesWealth(), request.getResourcesIndustry(),
+                    request.getResourcesResources(), request.getDistortionChance(), sentAt, deliverAt));
+        }
+
+        // ID выдаёт последовательность блоками по allocationSize, поэтому INSERT уходят пакетами
+        List<Message> savedMessages = messageRepository.saveAll(messages);
+        List<Long> ids = new ArrayList<>(savedMessages.size());
+        for (Message savedMessage : savedMessages) {
+            publish(MessageEventType.SENT, savedMessage);
+            ids.add(savedMessage.getId());
+        }
+        return ids;
+    }
+
+    public MessagePage getMessagesForUser(Long userId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findMessagesForUser(
+                userId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    public Message getMessageById(Long id) {
+        return messageRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Сообщение не найдено"));
+    }
+
+    public MessageDTO getMessageDtoById(Long id) {
+        return messageRepository.findDtoById(id)
+                .orElseThrow(() -> new RuntimeException("Сообщение не найдено"));
+    }
+
+    public MessagePage getPendingMessagesForAstropath(Long astropathId, String cursor, int limit) {
+        // Сообщения, где астропат получатель и они не доставлены
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findByReceiverIdAndDeliveredFalse(
+                astropathId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    public MessagePage getDeliveredMessagesForAstropath(Long astropathId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findBySenderId(
+                astropathId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    public MessagePage getUndeliveredMessagesFromAstropath(Long astropathId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findBySenderIdAndDeliveredFalse(
+                astropathId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    public MessagePage getDeliveredMessagesFromAstropath(Long astropathId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findBySenderIdAndDeliveredTrue(
+                astropathId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    public MessagePage getReceivedCommands(Long receiverId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findReceivedCommands(
+                receiverId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    public MessagePage getCommandsForReceiver(Long receiverId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findCommandsForReceiver(
+                receiverId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    /**
+     * Полнотекстовый поиск по тексту сообщений с фильтрами, результаты упорядочены по релевантности
+     */
+    public MessagePage searchMessages(MessageSearchFilter filter, String cursor, int limit) {
+        if (filter.getQuery() == null || filter.getQuery().isBlank()) {
+            throw new IllegalArgumentException("Поисковый запрос не должен быть пустым");
+        }
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше его конца");
+        }
+        checkPageSize(limit);
+        return messageSearcher.search(filter, MessageSearchCursor.decode(cursor), limit);
+    }
+
+    public long countCommandsForReceiver(Long receiverId, boolean completed) {
+        return messageRepository.countCommandsForReceiver(receiverId, completed);
+    }
+
+    public MessagePage getPendingCommandsForTrader(Long traderId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findPendingCommandsForTrader(
+                traderId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getSentAt);
+    }
+
+    public MessagePage getCompletedCommandsForTrader(Long traderId, String cursor, int limit) {
+        MessageCursor after = MessageCursor.decode(cursor);
+        return MessagePage.of(messageRepository.findCompletedCommandsForTrader(
+                traderId, after.getAt(), after.getId(), pageRequest(limit)), limit, MessageDTO::getCompletionDate);
+    }
+
+    // Счётчики поддерживает триггер message_stats_count, чтение - одна строка по первичному ключу
+    public MessageStats getMessageStats(Long userId) {
+        return messageStatsRepository.findById(userId)
+                .orElseGet(() -> new MessageStats(userId, 0, 0, 0, 0));
+    }
+
+    // Ответ собирается внутри транзакции: отправитель и получатель загружаются лениво
+    @Transactional
+    public MessageDTO markMessageDelivered(Long messageId) {
+        Message message = getMessageById(messageId);
+        message.setDelivered(true);
+        Message savedMessage = messageRepository.save(message);
+        publish(MessageEventType.DELIVERED, savedMessage);
+        return toDto(savedMessage);
+    }
+
+    @Transactional
+    public MessageDTO markCommandCompleted(Long messageId) {
+        Message message = getMessageById(messageId);
+        message.setCompleted(true);
+        message.setCompletionDate(LocalDateTime.now());
+        Message savedMessage = messageRepository.save(message);
+        publish(MessageEventType.COMPLETED, savedMessage);
+        return toDto(savedMessage);
+    }
+
+    private Message newMessage(User sender, User receiver, String content,
+                               MessageType messageType, Long commandId, CommandPayload payload,
+                               BigDecimal resourcesWealth, BigDecimal resourcesIndustry,
+                               BigDecimal resourcesResources, BigDecimal distortionChance,
+                               LocalDateTime sentAt, LocalDateTime deliverAt) {
         Message message = new Message();
         message.setSender(sender);
         message.setReceiver(receiver);
         message.setContent(content);
         message.setMessageType(messageType);
         message.setCommandId(commandId);
+        if (payload != null) {
+            String crisisAction = payload.getCrisisAction();
+            if (crisisAction != null && !"HELP".equals(crisisAction) && !"IGNORE".equals(crisisAction)) {
+                throw new IllegalArgumentException("Действие должно быть HELP или IGNORE");
+            }
+            message.setFromPlanetId(payload.getFromPlanetId());
+            message.setToPlanetId(payload.getToPlanetId());
+            message.setPlanetId(payload.getPlanetId());
+            message.setUpgradeId(payload.getUpgradeId());
+            message.setEventId(payload.getEventId());
+            message.setCrisisAction(crisisAction);
+        }
         message.setResourcesWealth(resourcesWealth);
         message.setResourcesIndustry(resourcesIndustry);
         message.setResourcesResources(resourcesResources);
+        message.setSentAt(sentAt);
+        message.setDeliverAt(deliverAt);
         message.setDelivered(false);
         message.setCompleted(false);
 
@@ -52,53 +260,163 @@ public class MessageService {
             message.setDistorted(true);
             message.setContent(content + " [ИСКАЖЕНО В ВАРПЕ]");
         }
-
-        Message savedMessage = messageRepository.save(message);
-        return savedMessage.getId().intValue();
+        return message;
     }
 
-    public List<Message> getMessagesForUser(Long userId) {
-        return messageRepository.findMessagesForUser(userId);
+    // Сообщение астропата идёт через варп и доставляется WarpDeliveryService по прибытии
+    private LocalDateTime warpArrivalTime(User sender, LocalDateTime sentAt) {
+        if (sender.getRole() != UserRole.ASTROPATH) {
+            return null;
+        }
+        return astropathRepository.findByUserId(sender.getId())
+                .map(astropath -> warpDeliveryService.arrivalTime(sentAt, astropath.getPsiLevel()))
+                .orElse(null);
     }
 
-    public Message getMessageById(Long id) {
-        return messageRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Сообщение не найдено"));
-    }
+    private List<User> resolveRecipients(BroadcastMessageRequest request, Long senderId) {
+        List<Long> receiverIds = request.getReceiverIds() != null ? request.getReceiverIds() : List.of();
+        List<Long> planetIds = request.getPlanetIds() != null ? request.getPlanetIds() : List.of();
+        int filters = (receiverIds.isEmpty() ? 0 : 1) + (planetIds.isEmpty() ? 0 : 1)
+                + (request.getReceiverRole() == null ? 0 : 1);
+        if (filters != 1) {
+            throw new IllegalArgumentException(
+                    "Получатели задаются ровно одним способом: receiverIds, planetIds или receiverRole");
+        }
 
-    public List<Message> getPendingMessagesForAstropath(Long astropathId) {
-        // Сообщения, где астропат получатель и они не доставлены
-        return messageRepository.findByReceiverIdAndDeliveredFalse(astropathId);
+        List<User> receivers;
+        if (!receiverIds.isEmpty()) {
+            List<Long> ids = receiverIds.stream().distinct().toList();
+            checkRecipientCount(ids.size());
+            Map<Long, User> found = userRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("Получатели не найдены: " + missing);
+            }
+            receivers = ids.stream().map(found::get).toList();
+        } else if (!planetIds.isEmpty()) {
+            List<Long> ids = planetIds.stream().distinct().toList();
+            checkRecipientCount(ids.size());
+            receivers = userRepository.findGovernorsOfPlanets(ids);
+        } else {
+            receivers = userRepository.findByRoleOrderById(request.getReceiverRole());
+        }
+
+        receivers = receivers.stream().filter(receiver -> !receiver.getId().equals(senderId)).toList();
+        if (receivers.isEmpty()) {
+            throw new RuntimeException("Получатели не найдены");
+        }
+        checkRecipientCount(receivers.size());
+        return receivers;
     }
 
-    public List<Message> getDeliveredMessagesForAstropath(Long astropathId) {
-        return messageRepository.findBySenderId(astropathId);
+    private static List<Long> distinctBulkIds(List<Long> messageIds) {
+        List<Long> ids = messageIds.stream().distinct().toList();
+        if (ids.size() > MAX_BULK_MESSAGES) {
+            throw new IllegalArgumentException(
+                    String.format("Количество сообщений не должно превышать %d", MAX_BULK_MESSAGES));
+        }
+        return ids;
     }
 
-    public List<Message> getCommandsForReceiver(Long receiverId) {
-        return messageRepository.findCommandsForReceiver(receiverId);
+    private static void checkRecipientCount(int count) {
+        if (count > MAX_BROADCAST_RECIPIENTS) {
+            throw new IllegalArgumentException(
+                    String.format("Количество получателей не должно превышать %d", MAX_BROADCAST_RECIPIENTS));
+        }
     }
 
-    public List<Message> getPendingCommandsForTrader(Long traderId) {
-        return messageRepository.findPendingCommandsForTrader(traderId);
+    // Лишняя строка сверх лимита показывает, есть ли следующая страница
+    private static Pageable pageRequest(int limit) {
+        checkPageSize(limit);
+        return PageRequest.of(0, limit + 1);
     }
 
-    public List<Message> getCompletedCommandsForTrader(Long traderId) {
-        return messageRepository.findCompletedCommandsForTrader(traderId);
+    private static void checkPageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
     }
 
+    /**
+     * Отмечает доставленными сообщения, которые астропат отправил или получил.
+     * Возвращает ID изменённых сообщений; чужие, уже доставленные и несуществующие пропускаются
+     */
     @Transactional
-    public Message markMessageDelivered(Long messageId) {
-        Message message = getMessageById(messageId);
-        message.setDelivered(true);
-        return messageRepository.save(message);
+    public List<Long> deliverMessages(Long astropathId, List<Long> messageIds) {
+        return messageBulkUpdater.markDelivered(distinctBulkIds(messageIds), astropathId);
     }
 
+    /**
+     * Отмечает выполненными команды, адресованные получателю.
+     * Возвращает ID изменённых команд; чужие, уже выполненные и несуществующие пропускаются
+     */
     @Transactional
-    public Message markCommandCompleted(Long messageId) {
-        Message message = getMessageById(messageId);
-        message.setCompleted(true);
-        message.setCompletionDate(LocalDateTime.now());
-        return messageRepository.save(message);
+    public List<Long> completeCommands(Long receiverId, List<Long> messageIds) {
+        return messageBulkUpdater.markCompleted(distinctBulkIds(messageIds), receiverId);
+    }
+
+    // Параметры команды для пересылки астропатом без изменений
+    public CommandPayload payloadOf(Message message) {
+        return new CommandPayload(
+                message.getFromPlanetId(),
+                message.getToPlanetId(),
+                message.getPlanetId(),
+                message.getUpgradeId(),
+                message.getEventId(),
+                message.getCrisisAction()
+        );
+    }
+
+    // Ответ на изменение сообщения, без сущностей User отправителя и получателя
+    private MessageDTO toDto(Message message) {
+        User sender = message.getSender();
+        User receiver = message.getReceiver();
+        return new MessageDTO(
+                message.getId(),
+                sender.getId(),
+                sender.getEmail(),
+                sender.getRole(),
+                receiver.getId(),
+                receiver.getEmail(),
+                receiver.getRole(),
+                message.getContent(),
+                message.getMessageType(),
+                message.getCommandId(),
+                message.getFromPlanetId(),
+                message.getToPlanetId(),
+                message.getPlanetId(),
+                message.getUpgradeId(),
+                message.getEventId(),
+                message.getCrisisAction(),
+                message.getResourcesWealth(),
+                message.getResourcesIndustry(),
+                message.getResourcesResources(),
+                message.getSentAt(),
+                message.getDelivered(),
+                message.getDistorted(),
+                message.getCompleted(),
+                message.getCompletionDate()
+        );
+    }
+
+    // Уведомление отправителю и получателю уходит после фиксации транзакции, см. MessageNotificationService
+    private void publish(MessageEventType eventType, Message message) {
+        eventPublisher.publishEvent(new MessageNotificationDTO(
+                eventType,
+                message.getId(),
+                message.getSender().getId(),
+                message.getReceiver().getId(),
+                message.getMessageType(),
+                message.getCommandId(),
+                message.getContent(),
+                message.getDistorted(),
+                message.getDelivered(),
+                message.getCompleted(),
+                message.getSentAt(),
+                message.getCompletionDate(),
+                message.getDeliverAt()
+        ));
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.entity.PlanetModifier;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Модификаторы улучшений планет одного торговца, загруженные одним запросом на цикл.
+ * Поиск по ID планеты - O(1), планеты без улучшений получают базовые значения
+ */
+public final class PlanetModifiers {
+    public static final PlanetModifier BASE =
+            new PlanetModifier(null, new BigDecimal("0.1000"), 0, new BigDecimal("1.0000"));
+    public static final PlanetModifiers NONE = new PlanetModifiers(Map.of());
+
+    private final Map<Long, PlanetModifier> byPlanet;
+
+    private PlanetModifiers(Map<Long, PlanetModifier> byPlanet) {
+        this.byPlanet = byPlanet;
+    }
+
+    public static PlanetModifiers of(List<PlanetModifier> modifiers) {
+        Map<Long, PlanetModifier> byPlanet = new HashMap<>(modifiers.size() * 2);
+        for (PlanetModifier modifier : modifiers) {
+            byPlanet.put(modifier.getPlanetId(), modifier);
+        }
+        return new PlanetModifiers(byPlanet);
+    }
+
+    public PlanetModifier forPlanet(Long planetId) {
+        return byPlanet.getOrDefault(planetId, BASE);
+    }
+
+    public int size() {
+        return byPlanet.size();
+    }
+}
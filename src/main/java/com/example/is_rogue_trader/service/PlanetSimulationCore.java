@@ -0,0 +1,266 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.model.entity.PlanetModifier;
+import com.example.is_rogue_trader.model.enums.EventType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Ядро симуляции планет торговца в виде колонок примитивов (struct-of-arrays).
+ * Богатство хранится в сотых долях (long), лояльность - в сотых долях процента (short, 0..10000),
+ * признак мятежа - в BitSet, ставка налога улучшений - в базисных пунктах (0..5000).
+ * Правила TimeService выполняются без аллокаций в цикле,
+ * а сущности {@link Planet} обновляются только при записи результата
+ */
+public class PlanetSimulationCore {
+    private static final int LOYALTY_SCALE = 100;
+    private static final int TAX_RATE_SCALE = 10_000;
+    private static final int MAX_LOYALTY = 100 * LOYALTY_SCALE;
+    private static final int REBELLION_THRESHOLD = 30 * LOYALTY_SCALE;
+    private static final int REBELLION_SEVERITY = 8;
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private final int size;
+    private final long[] wealth;
+    private final short[] loyalty;
+    private final BitSet rebellious;
+    private final BitSet dirty;
+
+    // Модификаторы улучшений, меняются только при завершении проектов (updateModifiers)
+    private final short[] taxRate;
+    private final byte[] loyaltyDrift;
+    private final double[] eventChanceFactor;
+
+    // Буфер событий цикла: на планету приходится не больше одного случайного события и одного бунта
+    private final int[] eventPlanets;
+    private final byte[] eventTypes;
+    private final byte[] eventSeverities;
+    private final BitSet rebellionEvents;
+    private int eventCount;
+
+    // Собранный налог в миллионных долях: сумма в сотых, умноженная на ставку в базисных пунктах
+    private long collectedTax;
+
+    private PlanetSimulationCore(int size) {
+        this.size = size;
+        this.wealth = new long[size];
+        this.loyalty = new short[size];
+        this.rebellious = new BitSet(size);
+        this.dirty = new BitSet(size);
+        this.taxRate = new short[size];
+        this.loyaltyDrift = new byte[size];
+        this.eventChanceFactor = new double[size];
+        this.eventPlanets = new int[size * 2];
+        this.eventTypes = new byte[size * 2];
+        this.eventSeverities = new byte[size * 2];
+        this.rebellionEvents = new BitSet(size * 2);
+    }
+
+    public static PlanetSimulationCore fromPlanets(List<Planet> planets, PlanetModifiers modifiers) {
+        PlanetSimulationCore core = new PlanetSimulationCore(planets.size());
+        for (int i = 0; i < core.size; i++) {
+            Planet planet = planets.get(i);
+            core.wealth[i] = toFixed(planet.getWealth());
+            core.loyalty[i] = (short) toFixed(planet.getLoyalty());
+            core.rebellious.set(i, Boolean.TRUE.equals(planet.getIsRebellious()));
+            core.setModifier(i, modifiers.forPlanet(planet.getId()));
+        }
+        return core;
+    }
+
+    /**
+     * Заменяет модификаторы планет, улучшения которых изменились между циклами.
+     * planets - те же сущности и в том же порядке, что при создании ядра, ключ changed - ID планеты
+     */
+    public void updateModifiers(List<Planet> planets, Map<Long, PlanetModifier> changed) {
+        for (int i = 0; i < size; i++) {
+            PlanetModifier modifier = changed.get(planets.get(i).getId());
+            if (modifier != null) {
+                setModifier(i, modifier);
+            }
+        }
+    }
+
+    private void setModifier(int planetIndex, PlanetModifier modifier) {
+        taxRate[planetIndex] = (short) modifier.getTaxRate().movePointRight(4).intValueExact();
+        loyaltyDrift[planetIndex] = modifier.getLoyaltyDrift().byteValue();
+        eventChanceFactor[planetIndex] = modifier.getEventChanceFactor().doubleValue();
+    }
+
+    /**
+     * Независимая копия состояния планет для прогонов, которые не записываются в БД
+     */
+    public PlanetSimulationCore copy() {
+        PlanetSimulationCore copy = new PlanetSimulationCore(size);
+        System.arraycopy(wealth, 0, copy.wealth, 0, size);
+        System.arraycopy(loyalty, 0, copy.loyalty, 0, size);
+        copy.rebellious.or(rebellious);
+        System.arraycopy(taxRate, 0, copy.taxRate, 0, size);
+        System.arraycopy(loyaltyDrift, 0, copy.loyaltyDrift, 0, size);
+        System.arraycopy(eventChanceFactor, 0, copy.eventChanceFactor, 0, size);
+        return copy;
+    }
+
+    /**
+     * Восстанавливает состояние планет из снимка того же торговца без аллокаций:
+     * ядро можно переиспользовать для нескольких прогонов от одного состояния
+     */
+    public void restore(PlanetSimulationCore snapshot) {
+        System.arraycopy(snapshot.wealth, 0, wealth, 0, size);
+        System.arraycopy(snapshot.loyalty, 0, loyalty, 0, size);
+        rebellious.clear();
+        rebellious.or(snapshot.rebellious);
+        dirty.clear();
+        startCycle();
+    }
+
+    /**
+     * Начинает следующий цикл над тем же ядром: буфер событий и собранный налог сбрасываются,
+     * а состояние планет и признаки изменённых строк накапливаются до записи результата
+     */
+    public void startCycle() {
+        eventCount = 0;
+        rebellionEvents.clear();
+        collectedTax = 0;
+    }
+
+    // ==================== ПРАВИЛА СИМУЛЯЦИИ ====================
+
+    // Налог по ставке планеты с лояльных планет, округление как у столбца DECIMAL(15,2)
+    public void collectTaxes() {
+        for (int i = 0; i < size; i++) {
+            if (!rebellious.get(i)) {
+                long current = wealth[i];
+                long taxed = divideHalfUp(current * (TAX_RATE_SCALE - taxRate[i]), TAX_RATE_SCALE);
+                collectedTax += current * taxRate[i];
+                if (taxed != current) {
+                    wealth[i] = taxed;
+                    dirty.set(i);
+                }
+            }
+        }
+    }
+
+    // Вероятность события зависит от лояльности планеты: (100 - loyalty) / 100 * 0.3 * множитель улучшений
+    public void generateEvents(RandomGenerator random) {
+        for (int i = 0; i < size; i++) {
+            double eventChance = (MAX_LOYALTY - loyalty[i]) / (double) MAX_LOYALTY * 0.3 * eventChanceFactor[i];
+            if (random.nextDouble() < eventChance) {
+                int type = random.nextInt(EVENT_TYPES.length);
+                int severity = random.nextInt(10) + 1;
+                recordEvent(i, type, severity, false);
+            }
+        }
+    }
+
+    // Базовая эволюция лояльности -2..+2 плюс дрейф улучшений с ограничением 0-100
+    public void updateLoyalty(RandomGenerator random) {
+        for (int i = 0; i < size; i++) {
+            int change = (random.nextInt(5) - 2 + loyaltyDrift[i]) * LOYALTY_SCALE;
+            int updated = Math.max(0, Math.min(MAX_LOYALTY, loyalty[i] + change));
+            if (updated != loyalty[i]) {
+                loyalty[i] = (short) updated;
+                dirty.set(i);
+            }
+        }
+    }
+
+    // Планета с лояльностью ниже 30 начинает бунт, а вернувшаяся к 30 и выше усмиряется,
+    // как в триггере rebellion_check: иначе fast-forward держал бы её мятежной и без налога
+    public void checkRebellions() {
+        for (int i = 0; i < size; i++) {
+            if (loyalty[i] < REBELLION_THRESHOLD && !rebellious.get(i)) {
+                rebellious.set(i);
+                dirty.set(i);
+                recordEvent(i, EventType.INSURRECTION.ordinal(), REBELLION_SEVERITY, true);
+            } else if (loyalty[i] >= REBELLION_THRESHOLD && rebellious.get(i)) {
+                rebellious.clear(i);
+                dirty.set(i);
+            }
+        }
+    }
+
+    private void recordEvent(int planetIndex, int type, int severity, boolean rebellion) {
+        eventPlanets[eventCount] = planetIndex;
+        eventTypes[eventCount] = (byte) type;
+        eventSeverities[eventCount] = (byte) severity;
+        rebellionEvents.set(eventCount, rebellion);
+        eventCount++;
+    }
+
+    // ==================== РЕЗУЛЬТАТЫ ====================
+
+    /**
+     * Записывает состояние изменённых планет в сущности, возвращает изменённые сущности
+     */
+    public List<Planet> writeBack(List<Planet> planets) {
+        List<Planet> changed = new ArrayList<>(dirty.cardinality());
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            Planet planet = planets.get(i);
+            planet.setWealth(BigDecimal.valueOf(wealth[i], 2));
+            planet.setLoyalty(BigDecimal.valueOf(loyalty[i], 2));
+            planet.setIsRebellious(rebellious.get(i));
+            changed.add(planet);
+        }
+        return changed;
+    }
+
+    public BigDecimal getCollectedTax() {
+        return BigDecimal.valueOf(collectedTax, 6);
+    }
+
+    // Налог цикла в миллионных долях, без аллокации BigDecimal
+    public long getCollectedTaxMicros() {
+        return collectedTax;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isRebellious(int planetIndex) {
+        return rebellious.get(planetIndex);
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getEventPlanetIndex(int event) {
+        return eventPlanets[event];
+    }
+
+    public EventType getEventType(int event) {
+        return EVENT_TYPES[eventTypes[event]];
+    }
+
+    public int getEventSeverity(int event) {
+        return eventSeverities[event];
+    }
+
+    public boolean isRebellionEvent(int event) {
+        return rebellionEvents.get(event);
+    }
+
+    public int getRebellionCount() {
+        return rebellionEvents.cardinality();
+    }
+
+    private static long toFixed(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Деление с округлением HALF_UP, как у BigDecimal и PostgreSQL NUMERIC
+    private static long divideHalfUp(long dividend, long divisor) {
+        return dividend >= 0
+                ? (dividend + divisor / 2) / divisor
+                : -((-dividend + divisor / 2) / divisor);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.model.enums.TickPhase;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Замеры одного цикла времени. Границы фаз берутся из вызовов {@link #onPhase},
+ * поэтому фазы TimeService замеряются теми же вызовами, что сообщают прогресс.
+ * Метрики публикуются после завершения цикла, когда известен размер империи.
+ * Используется одним потоком - потоком, выполняющим цикл
+ */
+public class TickCycleRecorder implements TickProgressListener {
+    private final TickMetrics metrics;
+    private final TickMode mode;
+    private final TickProgressListener delegate;
+    private final long cycleStarted = System.nanoTime();
+
+    private final Map<TickPhase, PhaseSample> phases = new EnumMap<>(TickPhase.class);
+    private PhaseSample current;
+    private long phaseStarted;
+    private int planets;
+    private long events;
+    private long rebellions;
+
+    TickCycleRecorder(TickMetrics metrics, TickMode mode, TickProgressListener delegate) {
+        this.metrics = metrics;
+        this.mode = mode;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onPhase(TickPhase phase) {
+        closePhase();
+        current = phases.computeIfAbsent(phase, p -> new PhaseSample());
+        phaseStarted = System.nanoTime();
+        delegate.onPhase(phase);
+    }
+
+    @Override
+    public void onPlanetsProcessed(int processed, int total) {
+        delegate.onPlanetsProcessed(processed, total);
+    }
+
+    public void planets(int count) {
+        planets = count;
+    }
+
+    public void rowsRead(long rows) {
+        if (current != null) {
+            current.rowsRead += rows;
+        }
+    }
+
+    public void rowsWritten(long rows) {
+        if (current != null) {
+            current.rowsWritten += rows;
+        }
+    }
+
+    public void events(long count) {
+        events += count;
+    }
+
+    public void rebellions(long count) {
+        rebellions += count;
+    }
+
+    public void finish() {
+        closePhase();
+        metrics.publish(mode, planets, System.nanoTime() - cycleStarted, phases, events, rebellions);
+    }
+
+    public void fail() {
+        metrics.publishFailure(mode);
+    }
+
+    private void closePhase() {
+        if (current != null) {
+            current.nanos += System.nanoTime() - phaseStarted;
+            current = null;
+        }
+    }
+
+    @Getter
+    static class PhaseSample {
+        private long nanos;
+        private long rowsRead;
+        private long rowsWritten;
+    }
+}
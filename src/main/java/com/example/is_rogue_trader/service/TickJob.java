@@ -0,0 +1,66 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.enums.TickJobStatus;
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.model.enums.TickPhase;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Асинхронная задача цикла времени. Состояние пишет поток исполнителя,
+ * а читают потоки запросов статуса, поэтому изменяемые поля volatile
+ */
+@Getter
+public class TickJob implements TickProgressListener {
+    private final String id;
+    private final Long traderId;
+    private final TickMode mode;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile TickJobStatus status = TickJobStatus.QUEUED;
+    private volatile TickPhase phase;
+    private volatile int planetsProcessed;
+    private volatile int planetsTotal;
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public TickJob(String id, Long traderId, TickMode mode) {
+        this.id = id;
+        this.traderId = traderId;
+        this.mode = mode;
+    }
+
+    @Override
+    public void onPhase(TickPhase phase) {
+        this.phase = phase;
+        this.planetsProcessed = 0;
+    }
+
+    @Override
+    public void onPlanetsProcessed(int processed, int total) {
+        this.planetsTotal = total;
+        this.planetsProcessed = processed;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = TickJobStatus.RUNNING;
+    }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = TickJobStatus.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = TickJobStatus.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == TickJobStatus.COMPLETED || status == TickJobStatus.FAILED;
+    }
+}
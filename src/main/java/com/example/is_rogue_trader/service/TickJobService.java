@@ -0,0 +1,122 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.TickJobDTO;
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.repository.RogueTraderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Асинхронные циклы времени: запрос сразу получает ID задачи, цикл выполняется
+ * на отдельном пуле потоков, а статус задачи опрашивается по ID.
+ * На торговца допускается одна незавершённая задача
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TickJobService {
+    private final TimeService timeService;
+    private final RogueTraderRepository rogueTraderRepository;
+
+    @Value("${tick.jobs.pool-size:2}")
+    private int poolSize;
+
+    @Value("${tick.jobs.retention-ms:3600000}")
+    private long retentionMs;
+
+    private final Map<String, TickJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, TickJob> activeJobs = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void startExecutor() {
+        executor = Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("tick-job-"));
+    }
+
+    @PreDestroy
+    public void stopExecutor() {
+        executor.shutdown();
+    }
+
+    public TickJobDTO submit(Long traderId, TickMode mode) {
+        if (!rogueTraderRepository.existsById(traderId)) {
+            throw new RuntimeException("Торговец не найден");
+        }
+        evictFinishedJobs();
+
+        TickJob job = new TickJob(UUID.randomUUID().toString(), traderId, mode);
+        TickJob active = activeJobs.putIfAbsent(traderId, job);
+        if (active != null) {
+            throw new IllegalArgumentException(
+                    String.format("Цикл торговца уже выполняется (задача %s)", active.getId()));
+        }
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(traderId, job);
+            job.fail("Исполнитель циклов остановлен");
+            throw new IllegalArgumentException("Исполнитель циклов остановлен");
+        }
+        return toDto(job);
+    }
+
+    public TickJobDTO getJob(String jobId) {
+        TickJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Задача не найдена");
+        }
+        return toDto(job);
+    }
+
+    private void run(TickJob job) {
+        job.start();
+        try {
+            timeService.advanceTimeCycle(job.getTraderId(), job.getMode(), job);
+            job.complete();
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+            log.warn("Задача {} цикла торговца {} завершилась с ошибкой: {}",
+                    job.getId(), job.getTraderId(), e.getMessage());
+        } finally {
+            activeJobs.remove(job.getTraderId(), job);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(Duration.ofMillis(retentionMs));
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    private TickJobDTO toDto(TickJob job) {
+        return new TickJobDTO(
+                job.getId(),
+                job.getTraderId(),
+                job.getMode(),
+                job.getStatus(),
+                job.getPhase(),
+                job.getPlanetsProcessed(),
+                job.getPlanetsTotal(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
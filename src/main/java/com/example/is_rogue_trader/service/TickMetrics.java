@@ -0,0 +1,68 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.model.enums.TickPhase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Метрики цикла времени в Micrometer: таймеры фаз с гистограммами задержек и счётчики строк,
+ * событий и бунтов. Все метрики помечены режимом и корзиной размера империи,
+ * поэтому фазу, которая деградирует с ростом империи, видно в /actuator/metrics и /actuator/prometheus
+ */
+@Component
+@RequiredArgsConstructor
+public class TickMetrics {
+    private final MeterRegistry registry;
+
+    public TickCycleRecorder startCycle(TickMode mode, TickProgressListener progress) {
+        return new TickCycleRecorder(this, mode, progress);
+    }
+
+    void publish(TickMode mode, int planets, long cycleNanos, Map<TickPhase, TickCycleRecorder.PhaseSample> phases,
+                 long events, long rebellions) {
+        Tags tags = Tags.of("mode", mode.name(), "size", sizeBucket(planets));
+
+        timer("tick.cycle", tags).record(Duration.ofNanos(cycleNanos));
+        phases.forEach((phase, sample) -> {
+            Tags phaseTags = tags.and("phase", phase.name().toLowerCase());
+            timer("tick.phase", phaseTags).record(Duration.ofNanos(sample.getNanos()));
+            Counter.builder("tick.rows.read").tags(phaseTags).register(registry).increment(sample.getRowsRead());
+            Counter.builder("tick.rows.written").tags(phaseTags).register(registry).increment(sample.getRowsWritten());
+        });
+        Counter.builder("tick.events.generated").tags(tags).register(registry).increment(events);
+        Counter.builder("tick.rebellions.triggered").tags(tags).register(registry).increment(rebellions);
+    }
+
+    void publishFailure(TickMode mode) {
+        Counter.builder("tick.cycle.failures").tags("mode", mode.name()).register(registry).increment();
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Корзины по порядку величины числа планет
+    static String sizeBucket(int planets) {
+        if (planets < 100) {
+            return "0-99";
+        }
+        if (planets < 1_000) {
+            return "100-999";
+        }
+        if (planets < 10_000) {
+            return "1000-9999";
+        }
+        return "10000+";
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.enums.TickPhase;
+
+/**
+ * Получатель прогресса цикла времени. Вызывается из потока, выполняющего цикл
+ */
+public interface TickProgressListener {
+    TickProgressListener NONE = new TickProgressListener() {
+    };
+
+    default void onPhase(TickPhase phase) {
+    }
+
+    // Число обработанных планет в текущей фазе
+    default void onPlanetsProcessed(int processed, int total) {
+    }
+}
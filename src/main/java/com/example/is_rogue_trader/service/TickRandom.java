@@ -0,0 +1,63 @@
+package com.example.is_rogue_trader.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированные генераторы случайных чисел одного цикла времени.
+ * Корневой {@link SplittableRandom} выводится из базового seed, ID торговца и номера цикла,
+ * а каждая фаза получает собственный поток через split() в фиксированном порядке.
+ * Генераторы не разделяются между торговцами, поэтому параллельные циклы не конкурируют,
+ * а цикл с тем же состоянием БД воспроизводится бит в бит в пределах одного режима.
+ * Режимы расходуют потоки по-разному: CHUNKED берёт поток каждой планеты через forPlanet,
+ * а BULK выводит дрейф лояльности в SQL через hashint8extended от seed, поэтому при одном seed
+ * их результат отличается от STANDARD и FUSED
+ */
+public final class TickRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final SplittableRandom projects;
+    private final SplittableRandom events;
+    private final SplittableRandom loyalty;
+
+    private TickRandom(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        this.projects = root.split();
+        this.events = root.split();
+        this.loyalty = root.split();
+    }
+
+    public static TickRandom forCycle(long baseSeed, long traderId, long cycle) {
+        long traderSeed = mix64(baseSeed + traderId * GOLDEN_GAMMA);
+        return new TickRandom(mix64(traderSeed + cycle * GOLDEN_GAMMA));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SplittableRandom projects() {
+        return projects;
+    }
+
+    public SplittableRandom events() {
+        return events;
+    }
+
+    public SplittableRandom loyalty() {
+        return loyalty;
+    }
+
+    // Собственный поток планеты: результат не зависит от порядка и разбиения планет на чанки
+    public SplittableRandom forPlanet(long planetId) {
+        return new SplittableRandom(mix64(seed + planetId * GOLDEN_GAMMA));
+    }
+
+    // Финализатор SplitMix64: равномерно перемешивает биты ключа
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.repository.RogueTraderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Серверный планировщик времени: с фиксированным интервалом продвигает цикл всех активных торговцев.
+ * Торговцы распределяются по партициям ограниченного пула потоков, цикл каждого торговца
+ * выполняется в собственной транзакции, а ошибка одного торговца не останавливает остальных
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tick.scheduler.enabled", havingValue = "true")
+public class TickScheduler {
+    private final TimeService timeService;
+    private final RogueTraderRepository rogueTraderRepository;
+
+    @Value("${tick.scheduler.pool-size:0}") // 0 - по числу ядер
+    private int poolSize;
+
+    @Value("${tick.scheduler.mode:FUSED}")
+    private TickMode mode;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void startWorkers() {
+        if (poolSize <= 0) {
+            poolSize = Runtime.getRuntime().availableProcessors();
+        }
+        workers = Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("tick-worker-"));
+        log.info("Планировщик времени запущен: {} потоков, режим {}", poolSize, mode);
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        workers.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${tick.scheduler.interval-ms:60000}",
+               initialDelayString = "${tick.scheduler.interval-ms:60000}")
+    public void advanceAllTraders() {
+        long started = System.currentTimeMillis();
+        List<Long> traderIds = rogueTraderRepository.findActiveTraderIds();
+
+        List<CompletableFuture<PartitionResult>> futures = partition(traderIds, poolSize).stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> advancePartition(partition), workers)
+                        .exceptionally(e -> {
+                            log.error("Партиция торговцев {} завершилась с ошибкой", partition, e);
+                            return new PartitionResult(0, partition.size());
+                        }))
+                .toList();
+
+        int advanced = 0;
+        int failed = 0;
+        for (CompletableFuture<PartitionResult> future : futures) {
+            PartitionResult result = future.join();
+            advanced += result.advanced();
+            failed += result.failed();
+        }
+
+        log.info("Цикл времени: торговцев {}, продвинуто {}, с ошибкой {}, за {} мс",
+                traderIds.size(), advanced, failed, System.currentTimeMillis() - started);
+    }
+
+    private PartitionResult advancePartition(List<Long> traderIds) {
+        int advanced = 0;
+        int failed = 0;
+        for (Long traderId : traderIds) {
+            try {
+                timeService.advanceTimeCycle(traderId, mode);
+                advanced++;
+            } catch (Exception e) {
+                failed++;
+                log.warn("Цикл торговца {} не выполнен: {}", traderId, e.getMessage());
+            }
+        }
+        return new PartitionResult(advanced, failed);
+    }
+
+    // Распределяет торговцев по партициям по кругу, чтобы партиции были равного размера
+    private static List<List<Long>> partition(List<Long> traderIds, int partitions) {
+        int count = Math.min(partitions, traderIds.size());
+        List<List<Long>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (int i = 0; i < traderIds.size(); i++) {
+            result.get(i % count).add(traderIds.get(i));
+        }
+        return result;
+    }
+
+    private record PartitionResult(int advanced, int failed) {
+    }
+}
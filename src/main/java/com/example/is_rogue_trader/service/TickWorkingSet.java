@@ -0,0 +1,66 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.entity.Event;
+import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.model.entity.RogueTrader;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Рабочий набор одного цикла времени: торговец, его планеты и ID его активных проектов загружаются один раз,
+ * фазы работают над ним в памяти, а в БД записываются только изменённые строки
+ */
+@Getter
+public class TickWorkingSet {
+    private final RogueTrader trader;
+    private final List<Planet> planets;
+    private final List<Long> inProgressProjectIds;
+    private final List<Long> plannedProjectIds;
+
+    private final Set<Planet> dirtyPlanets = new LinkedHashSet<>();
+    private final Set<Long> startedProjectIds = new LinkedHashSet<>();
+    private final Set<Long> completedProjectIds = new LinkedHashSet<>();
+    private final List<Event> newEvents = new ArrayList<>();
+    private boolean traderDirty;
+
+    public TickWorkingSet(RogueTrader trader, List<Planet> planets,
+                          List<Long> inProgressProjectIds, List<Long> plannedProjectIds) {
+        this.trader = trader;
+        this.planets = planets;
+        this.inProgressProjectIds = inProgressProjectIds;
+        this.plannedProjectIds = plannedProjectIds;
+    }
+
+    public void markDirty(Planet planet) {
+        dirtyPlanets.add(planet);
+    }
+
+    public void startProject(Long projectId) {
+        startedProjectIds.add(projectId);
+    }
+
+    // Проект, начатый и завершённый в одной перемотке, сразу записывается завершённым
+    public void completeProject(Long projectId) {
+        startedProjectIds.remove(projectId);
+        completedProjectIds.add(projectId);
+    }
+
+    // Завершённые проекты, которые записываются в БД раньше общей записи; после вызова набор пуст
+    public List<Long> takeCompletedProjectIds() {
+        List<Long> completed = new ArrayList<>(completedProjectIds);
+        completedProjectIds.clear();
+        return completed;
+    }
+
+    public void markTraderDirty() {
+        traderDirty = true;
+    }
+
+    public void addEvent(Event event) {
+        newEvents.add(event);
+    }
+}
@@ -1,167 +1,754 @@
 package com.example.is_rogue_trader.service;
 
+import com.example.is_rogue_trader.dto.CycleSummaryDTO;
+import com.example.is_rogue_trader.dto.FastForwardResultDTO;
 import com.example.is_rogue_trader.model.entity.Event;
 import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.model.entity.PlanetModifier;
 import com.example.is_rogue_trader.model.entity.RogueTrader;
+import com.example.is_rogue_trader.model.entity.TickCheckpoint;
 import com.example.is_rogue_trader.model.enums.EventType;
 import com.example.is_rogue_trader.model.enums.ProjectStatus;
+import com.example.is_rogue_trader.model.enums.TickMode;
+import com.example.is_rogue_trader.model.enums.TickPhase;
 import com.example.is_rogue_trader.repository.EventRepository;
 import com.example.is_rogue_trader.repository.MessageRepository;
+import com.example.is_rogue_trader.repository.PlanetModifierRepository;
 import com.example.is_rogue_trader.repository.PlanetRepository;
 import com.example.is_rogue_trader.repository.ProjectRepository;
 import com.example.is_rogue_trader.repository.RogueTraderRepository;
+import com.example.is_rogue_trader.repository.TickCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Optional;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TimeService {
+    private static final BigDecimal MAX_LOYALTY = new BigDecimal("100");
+    private static final BigDecimal REBELLION_THRESHOLD = new BigDecimal("30");
+    private static final int MAX_FAST_FORWARD_CYCLES = 1000;
+    private static final String UPGRADED_MODIFIERS_SQL =
+            "SELECT m.planet_id, m.tax_rate, m.loyalty_drift, m.event_chance_factor FROM planet_modifiers m " +
+            "WHERE m.planet_id IN (SELECT p.planet_id FROM projects p WHERE p.id IN (:projectIds))";
+
     private final PlanetRepository planetRepository;
+    private final PlanetModifierRepository planetModifierRepository;
     private final EventRepository eventRepository;
     private final ProjectRepository projectRepository;
     private final RogueTraderRepository rogueTraderRepository;
     private final MessageRepository messageRepository;
+    private final TickCheckpointRepository tickCheckpointRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TickMetrics tickMetrics;
+    private final EventStreamService eventStreamService;
 
-    private final Random random = new Random();
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${tick.random.seed:0}")
+    private long baseSeed;
+
+    @Value("${tick.chunk-size:500}")
+    private int chunkSize;
+
+    private TransactionTemplate cycleTransaction;
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    public void initTransactions() {
+        cycleTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
-    @Transactional
     public void advanceTimeCycle(Long traderId) {
-        // Перед продвижением времени проверяем наличие невыполненных команд
-        if (messageRepository.existsUncompletedCommands()) {
+        advanceTimeCycle(traderId, TickMode.STANDARD);
+    }
+
+    public void advanceTimeCycle(Long traderId, TickMode mode) {
+        advanceTimeCycle(traderId, mode, TickProgressListener.NONE);
+    }
+
+    /**
+     * Режим CHUNKED фиксирует каждый чанк планет отдельной транзакцией,
+     * остальные режимы выполняют весь цикл в одной транзакции
+     */
+    public void advanceTimeCycle(Long traderId, TickMode mode, TickProgressListener listener) {
+        TickCycleRecorder progress = tickMetrics.startCycle(mode, listener);
+        try {
+            if (mode == TickMode.CHUNKED) {
+                advanceTimeCycleChunked(traderId, progress);
+            } else {
+                cycleTransaction.executeWithoutResult(status -> advanceTimeCycleInTransaction(traderId, mode, progress));
+            }
+        } catch (RuntimeException e) {
+            progress.fail();
+            throw e;
+        }
+        progress.finish();
+    }
+
+    private void advanceTimeCycleInTransaction(Long traderId, TickMode mode, TickCycleRecorder progress) {
+        progress.onPhase(TickPhase.LOADING);
+        RogueTrader trader = rogueTraderRepository.findByIdForUpdate(traderId)
+                .orElseThrow(() -> new RuntimeException("Торговец не найден"));
+
+        // Перед продвижением времени проверяем наличие невыполненных команд торговца
+        requireTimeCanAdvance(trader);
+
+        // Случайность цикла выводится из ID торговца и номера цикла
+        long cycle = trader.getCurrentCycle() + 1;
+        TickRandom random = TickRandom.forCycle(baseSeed, traderId, cycle);
+        trader.setCurrentCycle(cycle);
+        log.debug("Цикл {} торговца {} (режим {}, seed {})", cycle, traderId, mode, random.getSeed());
+
+        if (mode == TickMode.FUSED) {
+            advanceTimeCycleFused(traderId, random, progress);
+            return;
+        }
+
+        // Модификаторы улучшений читаются один раз на цикл
+        PlanetModifiers modifiers = loadModifiers(traderId);
+        progress.rowsRead(modifiers.size());
+        if (mode == TickMode.BULK) {
+            advanceTimeCycleBulk(trader, random, modifiers, progress);
+            return;
+        }
+
+        // Каждая фаза сбрасывает свои изменения сама, иначе save() только помечает сущности,
+        // и запись попадает во время следующей фазы или коммита
+
+        // 1. Сбор налогов с планет
+        progress.onPhase(TickPhase.TAXES);
+        collectTaxes(traderId, modifiers, progress);
+        entityManager.flush();
+
+        // 2. Обновление проектов
+        progress.onPhase(TickPhase.PROJECTS);
+        updateProjects(traderId, random.projects(), progress);
+        entityManager.flush();
+
+        // 3. Генерация событий
+        progress.onPhase(TickPhase.EVENTS);
+        generateEvents(traderId, random.events(), modifiers, progress);
+        entityManager.flush();
+
+        // 4. Обновление лояльности
+        progress.onPhase(TickPhase.LOYALTY);
+        updateLoyalty(traderId, random.loyalty(), modifiers, progress);
+        entityManager.flush();
+
+        // 5. Проверка на бунты
+        progress.onPhase(TickPhase.REBELLIONS);
+        checkRebellions(traderId, progress);
+        entityManager.flush();
+    }
+
+    /**
+     * Цикл по чанкам: проекты и номер цикла фиксируются вместе с контрольной точкой,
+     * затем планеты обрабатываются чанками по tick.chunk-size, и каждый чанк коммитится
+     * вместе с новой позицией контрольной точки. Блокировки строк планет держатся один чанк,
+     * а после сбоя цикл продолжается с последней зафиксированной планеты без повторного налога
+     */
+    private void advanceTimeCycleChunked(Long traderId, TickCycleRecorder progress) {
+        TickCheckpoint checkpoint = chunkTransaction.execute(status -> openCheckpoint(traderId, progress));
+        TickRandom random = TickRandom.forCycle(baseSeed, traderId, checkpoint.getCycle());
+        int total = (int) planetRepository.countByTraderId(traderId);
+        progress.planets(total);
+
+        progress.onPhase(TickPhase.PLANETS);
+        int processed = 0;
+        int chunk;
+        do {
+            chunk = chunkTransaction.execute(status -> processChunk(traderId, checkpoint.getCycle(), random, progress));
+            processed += chunk;
+            progress.onPlanetsProcessed(Math.min(processed, total), total);
+        } while (chunk == chunkSize);
+    }
+
+    // Начинает новый цикл или возвращает контрольную точку прерванного
+    private TickCheckpoint openCheckpoint(Long traderId, TickCycleRecorder progress) {
+        progress.onPhase(TickPhase.LOADING);
+        RogueTrader trader = rogueTraderRepository.findByIdForUpdate(traderId)
+                .orElseThrow(() -> new RuntimeException("Торговец не найден"));
+
+        Optional<TickCheckpoint> interrupted = tickCheckpointRepository.findById(traderId);
+        if (interrupted.isPresent()) {
+            log.info("Возобновление цикла {} торговца {} после планеты {}",
+                    interrupted.get().getCycle(), traderId, interrupted.get().getLastPlanetId());
+            return interrupted.get();
+        }
+
+        requireTimeCanAdvance(trader);
+
+        long cycle = trader.getCurrentCycle() + 1;
+        TickRandom random = TickRandom.forCycle(baseSeed, traderId, cycle);
+        trader.setCurrentCycle(cycle);
+
+        progress.onPhase(TickPhase.PROJECTS);
+        updateProjects(traderId, random.projects(), progress);
+
+        return tickCheckpointRepository.save(new TickCheckpoint(traderId, cycle, 0L, LocalDateTime.now()));
+    }
+
+    /**
+     * Обрабатывает следующий чанк планет после контрольной точки и возвращает его размер.
+     * Строка торговца блокируется, поэтому параллельные исполнители одного цикла не берут один чанк дважды
+     */
+    private int processChunk(Long traderId, long cycle, TickRandom random, TickCycleRecorder progress) {
+        RogueTrader trader = rogueTraderRepository.findByIdForUpdate(traderId)
+                .orElseThrow(() -> new RuntimeException("Торговец не найден"));
+        TickCheckpoint checkpoint = tickCheckpointRepository.findById(traderId).orElse(null);
+        if (checkpoint == null || checkpoint.getCycle() != cycle) {
+            return 0;
+        }
+
+        List<Planet> planets = planetRepository.findByTraderIdAndIdGreaterThanOrderById(
+                traderId, checkpoint.getLastPlanetId(), PageRequest.of(0, chunkSize));
+        PlanetModifiers modifiers = PlanetModifiers.of(planetModifierRepository.findAllById(
+                planets.stream().map(Planet::getId).toList()));
+
+        BigDecimal totalTax = BigDecimal.ZERO;
+        int events = 0;
+        int rebellions = 0;
+        for (Planet planet : planets) {
+            // Фазы независимы между планетами, поэтому выполняются подряд для каждой планеты
+            RandomGenerator planetRandom = random.forPlanet(planet.getId());
+            PlanetModifier modifier = modifiers.forPlanet(planet.getId());
+            if (!planet.getIsRebellious()) {
+                totalTax = totalTax.add(applyTax(planet, modifier));
+            }
+            if (planetRandom.nextDouble() < eventChance(planet, modifier)) {
+                eventStreamService.publishCreated(eventRepository.save(createRandomEvent(planet, planetRandom)));
+                events++;
+            }
+            applyLoyaltyDrift(planet, planetRandom, modifier);
+            if (isRebellionTriggered(planet)) {
+                planet.setIsRebellious(true);
+                eventStreamService.publishCreated(eventRepository.save(createRebellionEvent(planet)));
+                rebellions++;
+            }
+        }
+        planetRepository.saveAll(planets);
+        trader.setTotalWealth(trader.getTotalWealth().add(totalTax));
+
+        progress.rowsRead(planets.size() + modifiers.size() + 2);
+        progress.rowsWritten(planets.size() + events + rebellions + 2);
+        progress.events(events);
+        progress.rebellions(rebellions);
+
+        if (planets.size() < chunkSize) {
+            tickCheckpointRepository.delete(checkpoint);
+        } else {
+            checkpoint.setLastPlanetId(planets.get(planets.size() - 1).getId());
+        }
+        return planets.size();
+    }
+
+    // Команды торговца отправляются от его пользователя, счётчик читается по первичному ключу;
+    // цикл, прерванный в режиме CHUNKED, должен быть завершён до следующего
+    private void requireTimeCanAdvance(RogueTrader trader) {
+        if (messageRepository.hasPendingCommands(trader.getUser().getId())) {
             throw new IllegalArgumentException("Нельзя пропустить время: есть невыполненные команды!");
         }
+        if (tickCheckpointRepository.existsById(trader.getId())) {
+            throw new IllegalArgumentException("Нельзя пропустить время: прерванный цикл нужно завершить в режиме CHUNKED");
+        }
+    }
+
+    /**
+     * Цикл в bulk-режиме: налоги, лояльность и бунты выполняются PL/pgSQL функциями
+     * collect_taxes_bulk(), update_loyalty_bulk() и check_rebellions_bulk().
+     * Число запросов зависит от числа фаз, а не от числа планет
+     */
+    private void advanceTimeCycleBulk(RogueTrader trader, TickRandom random, PlanetModifiers modifiers,
+                                      TickCycleRecorder progress) {
+        Long traderId = trader.getId();
+
+        // Номер цикла записывается до PL/pgSQL функций, чтобы сущность не перезаписала их изменения
+        rogueTraderRepository.saveAndFlush(trader);
+
+        // 1. Сбор налогов одним UPDATE
+        progress.onPhase(TickPhase.TAXES);
+        collectTaxesBulk(traderId);
+
+        // 2. Обновление проектов
+        progress.onPhase(TickPhase.PROJECTS);
+        updateProjects(traderId, random.projects(), progress);
+
+        // 3. Генерация событий
+        progress.onPhase(TickPhase.EVENTS);
+        generateEvents(traderId, random.events(), modifiers, progress);
+
+        // 4. Обновление лояльности одним UPDATE
+        progress.onPhase(TickPhase.LOYALTY);
+        List<Integer> rebellionCandidates = updateLoyaltyBulk(traderId, random.loyalty().nextLong());
+
+        // 5. Проверка на бунты одним UPDATE + INSERT
+        progress.onPhase(TickPhase.REBELLIONS);
+        int rebellions = checkRebellionsBulk(traderId, rebellionCandidates);
+        progress.rebellions(rebellions);
+        progress.rowsWritten(rebellions);
+    }
+
+    private BigDecimal collectTaxesBulk(Long traderId) {
+        return (BigDecimal) entityManager.createNativeQuery(
+                        "SELECT collect_taxes_bulk(:traderId)")
+                .setParameter("traderId", traderId)
+                .getSingleResult();
+    }
+
+    /**
+     * Возвращает ID планет, которые были лояльны до дрейфа и опустились ниже 30.
+     * Триггер rebellion_check уже пометил их мятежными, поэтому фазе бунтов
+     * они передаются явно, чтобы для них тоже было создано событие
+     */
+    private List<Integer> updateLoyaltyBulk(Long traderId, long seed) {
+        @SuppressWarnings("unchecked")
+        List<Number> results = entityManager.createNativeQuery(
+                        "SELECT * FROM update_loyalty_bulk(:traderId, :seed)")
+                .setParameter("traderId", traderId)
+                .setParameter("seed", seed)
+                .getResultList();
+
+        return results.stream()
+                .map(Number::intValue)
+                .collect(Collectors.toList());
+    }
+
+    // Возвращает число бунтов, созданные функцией события публикуются в поток торговца
+    private int checkRebellionsBulk(Long traderId, List<Integer> candidateIds) {
+        String candidates = candidateIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        @SuppressWarnings("unchecked")
+        List<Number> eventIds = entityManager.createNativeQuery(
+                        "SELECT * FROM check_rebellions_bulk(:traderId, CAST(string_to_array(:candidates, ',') AS INT[]))")
+                .setParameter("traderId", traderId)
+                .setParameter("candidates", candidates)
+                .getResultList();
+
+        if (!eventIds.isEmpty()) {
+            eventStreamService.publishCreated(eventRepository.findAllById(
+                    eventIds.stream().map(Number::longValue).toList()));
+        }
+        return eventIds.size();
+    }
+
+    /**
+     * Цикл в fused-режиме: торговец и его планеты загружаются один раз в {@link TickWorkingSet},
+     * правила планет выполняются над колонками {@link PlanetSimulationCore} без аллокаций,
+     * а изменённые строки записываются одним проходом в конце
+     */
+    private void advanceTimeCycleFused(Long traderId, TickRandom random, TickCycleRecorder progress) {
+        TickWorkingSet workingSet = loadWorkingSet(traderId);
+        PlanetModifiers modifiers = loadModifiers(traderId);
+        PlanetSimulationCore core = PlanetSimulationCore.fromPlanets(workingSet.getPlanets(), modifiers);
+        progress.planets(core.size());
+        progress.rowsRead(core.size() + modifiers.size() + workingSet.getInProgressProjectIds().size()
+                + workingSet.getPlannedProjectIds().size());
+
+        runFusedCycle(core, workingSet, random, progress);
+        progress.events(core.getEventCount() - core.getRebellionCount());
+        progress.rebellions(core.getRebellionCount());
+
+        progress.onPhase(TickPhase.WRITING);
+        applySimulation(core, workingSet);
+        writeBack(workingSet);
+        progress.rowsWritten(workingSet.getDirtyPlanets().size() + workingSet.getStartedProjectIds().size()
+                + workingSet.getCompletedProjectIds().size() + workingSet.getNewEvents().size() + 1);
+    }
+
+    /**
+     * Продвигает время на несколько циклов за одну транзакцию: циклы выполняются над одним
+     * рабочим набором в памяти, события всех промежуточных циклов сохраняются,
+     * а итоговое состояние планет записывается один раз.
+     * Проекты, завершённые в цикле, записываются сразу: триггеры добавляют улучшения и пересчитывают
+     * planet_modifiers, и следующие циклы идут уже с новыми модификаторами, как в режиме FUSED
+     */
+    @Transactional
+    public FastForwardResultDTO fastForward(Long traderId, int cycles) {
+        if (cycles < 1 || cycles > MAX_FAST_FORWARD_CYCLES) {
+            throw new IllegalArgumentException(
+                    String.format("Количество циклов должно быть от 1 до %d", MAX_FAST_FORWARD_CYCLES));
+        }
+        requireTimeCanAdvance(rogueTraderRepository.findByIdForUpdate(traderId)
+                .orElseThrow(() -> new RuntimeException("Торговец не найден")));
+
+        TickWorkingSet workingSet = loadWorkingSet(traderId);
+        RogueTrader trader = workingSet.getTrader();
+        PlanetSimulationCore core = PlanetSimulationCore.fromPlanets(
+                workingSet.getPlanets(), loadModifiers(traderId));
+
+        List<CycleSummaryDTO> summaries = new ArrayList<>(cycles);
+        BigDecimal totalTax = BigDecimal.ZERO;
+        for (int i = 0; i < cycles; i++) {
+            long cycle = trader.getCurrentCycle() + 1;
+            TickRandom random = TickRandom.forCycle(baseSeed, traderId, cycle);
+            trader.setCurrentCycle(cycle);
+
+            core.startCycle();
+            runFusedCycle(core, workingSet, random, TickProgressListener.NONE);
+            collectCycleResults(core, workingSet);
+            applyCompletedProjects(core, workingSet);
+
+            int rebellions = core.getRebellionCount();
+            summaries.add(new CycleSummaryDTO(cycle, core.getCollectedTax(),
+                    core.getEventCount() - rebellions, rebellions));
+            totalTax = totalTax.add(core.getCollectedTax());
+        }
+
+        core.writeBack(workingSet.getPlanets()).forEach(workingSet::markDirty);
+        writeBack(workingSet);
+        log.debug("Торговец {} продвинут на {} циклов до цикла {}", traderId, cycles, trader.getCurrentCycle());
+
+        return new FastForwardResultDTO(traderId, trader.getCurrentCycle(),
+                trader.getTotalWealth(), totalTax, summaries);
+    }
+
+    // Фазы одного цикла над ядром симуляции и проектами рабочего набора
+    private void runFusedCycle(PlanetSimulationCore core, TickWorkingSet workingSet, TickRandom random,
+                               TickProgressListener progress) {
+        int planets = core.size();
 
         // 1. Сбор налогов с планет
-        collectTaxes(traderId);
+        progress.onPhase(TickPhase.TAXES);
+        core.collectTaxes();
+        progress.onPlanetsProcessed(planets, planets);
 
         // 2. Обновление проектов
-        updateProjects();
+        progress.onPhase(TickPhase.PROJECTS);
+        updateProjects(workingSet, random.projects());
 
         // 3. Генерация событий
-        generateEvents(traderId);
+        progress.onPhase(TickPhase.EVENTS);
+        core.generateEvents(random.events());
+        progress.onPlanetsProcessed(planets, planets);
 
         // 4. Обновление лояльности
-        updateLoyalty(traderId);
+        progress.onPhase(TickPhase.LOYALTY);
+        core.updateLoyalty(random.loyalty());
+        progress.onPlanetsProcessed(planets, planets);
 
         // 5. Проверка на бунты
-        checkRebellions(traderId);
+        progress.onPhase(TickPhase.REBELLIONS);
+        core.checkRebellions();
+        progress.onPlanetsProcessed(planets, planets);
+    }
+
+    private PlanetModifiers loadModifiers(Long traderId) {
+        return PlanetModifiers.of(planetModifierRepository.findByTraderId(traderId));
+    }
+
+    // Завершает проекты цикла в БД и переносит в ядро модификаторы, пересчитанные триггерами
+    private void applyCompletedProjects(PlanetSimulationCore core, TickWorkingSet workingSet) {
+        List<Long> completed = workingSet.takeCompletedProjectIds();
+        if (completed.isEmpty()) {
+            return;
+        }
+        projectRepository.completeByIds(completed, LocalDateTime.now());
+        core.updateModifiers(workingSet.getPlanets(), loadUpgradedModifiers(completed));
+    }
+
+    /**
+     * Модификаторы планет завершённых проектов читаются скалярным запросом:
+     * PlanetModifier неизменяема, и уже загруженные сущности в контексте персистентности
+     * не увидели бы строки, пересозданные функцией refresh_planet_modifiers
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, PlanetModifier> loadUpgradedModifiers(Collection<Long> projectIds) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(UPGRADED_MODIFIERS_SQL).unwrap(NativeQuery.class);
+        query.setParameterList("projectIds", projectIds);
+        List<Object[]> rows = query
+                .addScalar("planet_id", Long.class)
+                .addScalar("tax_rate", BigDecimal.class)
+                .addScalar("loyalty_drift", Integer.class)
+                .addScalar("event_chance_factor", BigDecimal.class)
+                .getResultList();
+
+        Map<Long, PlanetModifier> modifiers = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            modifiers.put((Long) row[0],
+                    new PlanetModifier((Long) row[0], (BigDecimal) row[1], (Integer) row[2], (BigDecimal) row[3]));
+        }
+        return modifiers;
+    }
+
+    private TickWorkingSet loadWorkingSet(Long traderId) {
+        RogueTrader trader = rogueTraderRepository.findById(traderId)
+                .orElseThrow(() -> new RuntimeException("Торговец не найден"));
+
+        return new TickWorkingSet(
+                trader,
+                planetRepository.findByTraderIdOrderById(traderId),
+                projectRepository.findIdsByTraderIdAndStatus(traderId, ProjectStatus.IN_PROGRESS),
+                projectRepository.findIdsByTraderIdAndStatus(traderId, ProjectStatus.PLANNED)
+        );
+    }
+
+    private void writeBack(TickWorkingSet workingSet) {
+        planetRepository.saveAll(workingSet.getDirtyPlanets());
+        applyProjectTransitions(workingSet.getStartedProjectIds(), workingSet.getCompletedProjectIds());
+        eventStreamService.publishCreated(eventRepository.saveAll(workingSet.getNewEvents()));
+        if (workingSet.isTraderDirty()) {
+            rogueTraderRepository.save(workingSet.getTrader());
+        }
+    }
+
+    // Переносит результат ядра симуляции в сущности рабочего набора
+    private void applySimulation(PlanetSimulationCore core, TickWorkingSet workingSet) {
+        core.writeBack(workingSet.getPlanets()).forEach(workingSet::markDirty);
+        collectCycleResults(core, workingSet);
+    }
+
+    // События и налог текущего цикла ядра
+    private void collectCycleResults(PlanetSimulationCore core, TickWorkingSet workingSet) {
+        List<Planet> planets = workingSet.getPlanets();
+        for (int i = 0; i < core.getEventCount(); i++) {
+            Planet planet = planets.get(core.getEventPlanetIndex(i));
+            workingSet.addEvent(core.isRebellionEvent(i)
+                    ? createRebellionEvent(planet)
+                    : createEvent(planet, core.getEventType(i), core.getEventSeverity(i)));
+        }
+
+        RogueTrader trader = workingSet.getTrader();
+        trader.setTotalWealth(trader.getTotalWealth().add(core.getCollectedTax()));
+        workingSet.markTraderDirty();
+    }
+
+    // Завершённые проекты выбывают из рабочего набора, начатые переходят в работу со следующего цикла
+    private void updateProjects(TickWorkingSet workingSet, RandomGenerator random) {
+        Iterator<Long> inProgress = workingSet.getInProgressProjectIds().iterator();
+        while (inProgress.hasNext()) {
+            Long projectId = inProgress.next();
+            if (rollsProjectCompletion(random)) {
+                workingSet.completeProject(projectId);
+                inProgress.remove();
+            }
+        }
+
+        List<Long> started = new ArrayList<>();
+        Iterator<Long> planned = workingSet.getPlannedProjectIds().iterator();
+        while (planned.hasNext()) {
+            Long projectId = planned.next();
+            if (rollsProjectStart(random)) {
+                workingSet.startProject(projectId);
+                planned.remove();
+                started.add(projectId);
+            }
+        }
+
+        if (!started.isEmpty()) {
+            workingSet.getInProgressProjectIds().addAll(started);
+            Collections.sort(workingSet.getInProgressProjectIds());
+        }
     }
 
-    private void collectTaxes(Long traderId) {
-        List<Planet> planets = planetRepository.findByTraderId(traderId);
+    private void collectTaxes(Long traderId, PlanetModifiers modifiers, TickCycleRecorder progress) {
+        List<Planet> planets = planetRepository.findByTraderIdOrderById(traderId);
         RogueTrader trader = rogueTraderRepository.findById(traderId)
                 .orElseThrow(() -> new RuntimeException("Торговец не найден"));
+        progress.planets(planets.size());
+        progress.rowsRead(planets.size());
 
         BigDecimal totalTax = BigDecimal.ZERO;
-        for (Planet planet : planets) {
+        for (int i = 0; i < planets.size(); i++) {
+            Planet planet = planets.get(i);
             if (!planet.getIsRebellious()) {
-                BigDecimal planetTax = planet.getWealth().multiply(new BigDecimal("0.1")); // 10% налог
-                planet.setWealth(planet.getWealth().subtract(planetTax));
-                totalTax = totalTax.add(planetTax);
+                totalTax = totalTax.add(applyTax(planet, modifiers.forPlanet(planet.getId())));
                 planetRepository.save(planet);
+                progress.rowsWritten(1);
             }
+            progress.onPlanetsProcessed(i + 1, planets.size());
         }
 
         trader.setTotalWealth(trader.getTotalWealth().add(totalTax));
         rogueTraderRepository.save(trader);
     }
 
-    private void updateLoyalty(Long traderId) {
-        List<Planet> planets = planetRepository.findByTraderId(traderId);
-        for (Planet planet : planets) {
-            // Базовая эволюция лояльности
-            BigDecimal loyaltyChange = new BigDecimal(random.nextInt(5) - 2); // -2..+2
-            BigDecimal newLoyalty = planet.getLoyalty().add(loyaltyChange);
-
-            // Ограничение 0-100
-            newLoyalty = newLoyalty.max(BigDecimal.ZERO).min(new BigDecimal("100"));
-            planet.setLoyalty(newLoyalty);
-            planetRepository.save(planet);
+    private void updateLoyalty(Long traderId, RandomGenerator random, PlanetModifiers modifiers,
+                               TickCycleRecorder progress) {
+        List<Planet> planets = planetRepository.findByTraderIdOrderById(traderId);
+        progress.rowsRead(planets.size());
+        for (int i = 0; i < planets.size(); i++) {
+            Planet planet = planets.get(i);
+            // Планеты с прежней лояльностью не попадают в UPDATE
+            if (applyLoyaltyDrift(planet, random, modifiers.forPlanet(planet.getId()))) {
+                planetRepository.save(planet);
+                progress.rowsWritten(1);
+            }
+            progress.onPlanetsProcessed(i + 1, planets.size());
         }
     }
 
-    private void checkRebellions(Long traderId) {
-        List<Planet> planets = planetRepository.findByTraderId(traderId);
-        for (Planet planet : planets) {
-            if (planet.getLoyalty().compareTo(new BigDecimal("30")) < 0 && !planet.getIsRebellious()) {
+    private void checkRebellions(Long traderId, TickCycleRecorder progress) {
+        List<Planet> planets = planetRepository.findByTraderIdOrderById(traderId);
+        progress.rowsRead(planets.size());
+        for (int i = 0; i < planets.size(); i++) {
+            Planet planet = planets.get(i);
+            if (isRebellionTriggered(planet)) {
                 // Планета начинает бунт
                 planet.setIsRebellious(true);
-
-                // Создаем событие бунта
-                Event rebellionEvent = new Event();
-                rebellionEvent.setPlanet(planet);
-                rebellionEvent.setEventType(EventType.INSURRECTION);
-                rebellionEvent.setSeverity(8);
-                rebellionEvent.setDescription(String.format("Мятеж на планете %s! Лояльность упала ниже 30%%", planet.getName()));
-                rebellionEvent.setResolved(false);
-                eventRepository.save(rebellionEvent);
-
+                eventStreamService.publishCreated(eventRepository.save(createRebellionEvent(planet)));
                 planetRepository.save(planet);
+                progress.rebellions(1);
+                progress.rowsWritten(2);
             }
+            progress.onPlanetsProcessed(i + 1, planets.size());
         }
     }
 
-    private void updateProjects() {
-        List<com.example.is_rogue_trader.model.entity.Project> inProgressProjects =
-                projectRepository.findByStatus(ProjectStatus.IN_PROGRESS);
-
-        for (com.example.is_rogue_trader.model.entity.Project project : inProgressProjects) {
-            // С вероятностью 30% завершаем проект
-            if (random.nextDouble() < 0.3) {
-                project.setStatus(ProjectStatus.COMPLETED);
-                project.setCompletionDate(LocalDateTime.now());
-                projectRepository.save(project);
+    // Проекты только планет торговца, смена статусов уходит двумя пакетными UPDATE
+    private void updateProjects(Long traderId, RandomGenerator random, TickCycleRecorder progress) {
+        List<Long> inProgress = projectRepository.findIdsByTraderIdAndStatus(traderId, ProjectStatus.IN_PROGRESS);
+        List<Long> completed = new ArrayList<>();
+        for (Long projectId : inProgress) {
+            if (rollsProjectCompletion(random)) {
+                completed.add(projectId);
             }
         }
 
         // Переводим запланированные проекты в работу
-        List<com.example.is_rogue_trader.model.entity.Project> plannedProjects =
-                projectRepository.findByStatus(ProjectStatus.PLANNED);
-
-        for (com.example.is_rogue_trader.model.entity.Project project : plannedProjects) {
-            if (random.nextDouble() < 0.5) {
-                project.setStatus(ProjectStatus.IN_PROGRESS);
-                projectRepository.save(project);
+        List<Long> planned = projectRepository.findIdsByTraderIdAndStatus(traderId, ProjectStatus.PLANNED);
+        List<Long> started = new ArrayList<>();
+        for (Long projectId : planned) {
+            if (rollsProjectStart(random)) {
+                started.add(projectId);
             }
         }
+
+        applyProjectTransitions(started, completed);
+        progress.rowsRead(inProgress.size() + planned.size());
+        progress.rowsWritten(started.size() + completed.size());
     }
 
-    private void generateEvents(Long traderId) {
-        List<Planet> planets = planetRepository.findByTraderId(traderId);
+    // Сначала запуск, затем завершение; триггер project_completion срабатывает на каждую завершённую строку
+    private void applyProjectTransitions(Collection<Long> startedIds, Collection<Long> completedIds) {
+        if (!startedIds.isEmpty()) {
+            projectRepository.startByIds(startedIds);
+        }
+        if (!completedIds.isEmpty()) {
+            projectRepository.completeByIds(completedIds, LocalDateTime.now());
+        }
+    }
 
-        for (Planet planet : planets) {
-            // Вероятность события зависит от лояльности планеты
-            double eventChance = (100.0 - planet.getLoyalty().doubleValue()) / 100.0 * 0.3;
+    private void generateEvents(Long traderId, RandomGenerator random, PlanetModifiers modifiers,
+                                TickCycleRecorder progress) {
+        List<Planet> planets = planetRepository.findByTraderIdOrderById(traderId);
+        progress.planets(planets.size());
+        progress.rowsRead(planets.size());
 
-            if (random.nextDouble() < eventChance) {
-                Event event = createRandomEvent(planet);
-                eventRepository.save(event);
+        for (int i = 0; i < planets.size(); i++) {
+            Planet planet = planets.get(i);
+            if (random.nextDouble() < eventChance(planet, modifiers.forPlanet(planet.getId()))) {
+                Event event = createRandomEvent(planet, random);
+                eventStreamService.publishCreated(eventRepository.save(event));
+                progress.events(1);
+                progress.rowsWritten(1);
             }
+            progress.onPlanetsProcessed(i + 1, planets.size());
         }
     }
 
-    private Event createRandomEvent(Planet planet) {
-        Event event = new Event();
-        event.setPlanet(planet);
-        event.setResolved(false);
-        event.setOccurredAt(LocalDateTime.now());
+    // ==================== ПРАВИЛА СИМУЛЯЦИИ ====================
+    // Правила доступны в пакете как static-методы, их вызывает JMH-бенчмарк TickRulesBenchmark
 
+    // Налог 10% с планеты, возвращает собранную сумму
+    static BigDecimal applyTax(Planet planet, PlanetModifier modifier) {
+        BigDecimal planetTax = planet.getWealth().multiply(modifier.getTaxRate());
+        planet.setWealth(planet.getWealth().subtract(planetTax));
+        return planetTax;
+    }
+
+    // Базовая эволюция лояльности -2..+2 плюс дрейф улучшений с ограничением 0-100,
+    // возвращает true если лояльность изменилась
+    static boolean applyLoyaltyDrift(Planet planet, RandomGenerator random, PlanetModifier modifier) {
+        BigDecimal loyaltyChange = new BigDecimal(random.nextInt(5) - 2 + modifier.getLoyaltyDrift());
+        BigDecimal newLoyalty = planet.getLoyalty().add(loyaltyChange)
+                .max(BigDecimal.ZERO)
+                .min(MAX_LOYALTY);
+
+        boolean changed = newLoyalty.compareTo(planet.getLoyalty()) != 0;
+        planet.setLoyalty(newLoyalty);
+        return changed;
+    }
+
+    // Вероятность события зависит от лояльности планеты
+    static double eventChance(Planet planet, PlanetModifier modifier) {
+        return (100.0 - planet.getLoyalty().doubleValue()) / 100.0 * 0.3 * modifier.getEventChanceFactor().doubleValue();
+    }
+
+    static boolean isRebellionTriggered(Planet planet) {
+        return planet.getLoyalty().compareTo(REBELLION_THRESHOLD) < 0 && !planet.getIsRebellious();
+    }
+
+    private Event createRebellionEvent(Planet planet) {
+        Event rebellionEvent = new Event();
+        rebellionEvent.setPlanet(planet);
+        rebellionEvent.setEventType(EventType.INSURRECTION);
+        rebellionEvent.setSeverity(8);
+        rebellionEvent.setDescription(String.format("Мятеж на планете %s! Лояльность упала ниже 30%%", planet.getName()));
+        rebellionEvent.setResolved(false);
+        return rebellionEvent;
+    }
+
+    // С вероятностью 30% завершаем проект
+    private boolean rollsProjectCompletion(RandomGenerator random) {
+        return random.nextDouble() < 0.3;
+    }
+
+    // С вероятностью 50% переводим запланированный проект в работу
+    private boolean rollsProjectStart(RandomGenerator random) {
+        return random.nextDouble() < 0.5;
+    }
+
+    private Event createRandomEvent(Planet planet, RandomGenerator random) {
         // Случайный тип события
         EventType[] eventTypes = EventType.values();
-        event.setEventType(eventTypes[random.nextInt(eventTypes.length)]);
+        EventType eventType = eventTypes[random.nextInt(eventTypes.length)];
 
         // Случайная серьезность (1-10)
-        event.setSeverity(random.nextInt(10) + 1);
+        int severity = random.nextInt(10) + 1;
+
+        return createEvent(planet, eventType, severity);
+    }
+
+    private Event createEvent(Planet planet, EventType eventType, int severity) {
+        Event event = new Event();
+        event.setPlanet(planet);
+        event.setResolved(false);
+        event.setOccurredAt(LocalDateTime.now());
+        event.setEventType(eventType);
+        event.setSeverity(severity);
 
         // Описание в зависимости от типа
-        String description = generateEventDescription(event.getEventType(), planet.getName());
-        event.setDescription(description);
+        event.setDescription(generateEventDescription(eventType, planet.getName()));
 
         return event;
     }
@@ -0,0 +1,156 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.dto.MessageNotificationDTO;
+import com.example.is_rogue_trader.model.enums.MessageEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Доставка сообщений астропатов через варп. Отправленное астропатом сообщение получает время прибытия
+ * (чем выше пси-уровень, тем короче переход) и после фиксации транзакции попадает в DelayQueue.
+ * Поток доставки забирает все наступившие переходы пачкой и отмечает их доставленными одним UPDATE
+ * через {@link MessageBulkUpdater}. При старте очередь восстанавливается из БД
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WarpDeliveryService {
+    private static final int MAX_PSI_LEVEL = 10;
+
+    private final PlatformTransactionManager transactionManager;
+    private final MessageBulkUpdater messageBulkUpdater;
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${warp.delivery.base-transit-ms:10000}")
+    private long baseTransitMs;
+
+    @Value("${warp.delivery.batch-size:500}")
+    private int batchSize;
+
+    @Value("${warp.delivery.retry-ms:1000}")
+    private long retryMs;
+
+    private final DelayQueue<WarpTransit> transits = new DelayQueue<>();
+
+    private TransactionTemplate deliveryTransaction;
+    private Counter deliveredCounter;
+    private ExecutorService deliverer;
+
+    @PostConstruct
+    public void startDeliverer() {
+        deliveryTransaction = new TransactionTemplate(transactionManager);
+        deliveredCounter = Counter.builder("warp.messages.delivered").register(meterRegistry);
+        deliverer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("warp-delivery-"));
+        deliverer.execute(this::deliverLoop);
+    }
+
+    @PreDestroy
+    public void stopDeliverer() {
+        deliverer.shutdownNow();
+    }
+
+    /**
+     * Время прибытия сообщения астропата: базовый переход при пси-уровне 1,
+     * каждый следующий уровень сокращает его на десятую часть
+     */
+    public LocalDateTime arrivalTime(LocalDateTime sentAt, Integer psiLevel) {
+        int psi = psiLevel != null ? Math.max(1, Math.min(MAX_PSI_LEVEL, psiLevel)) : 1;
+        return sentAt.plus(Duration.ofMillis(baseTransitMs * (MAX_PSI_LEVEL + 1 - psi) / MAX_PSI_LEVEL));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageChanged(MessageNotificationDTO notification) {
+        if (notification.getEventType() == MessageEventType.SENT && notification.getDeliverAt() != null) {
+            transits.add(WarpTransit.of(notification.getMessageId(), notification.getDeliverAt()));
+        }
+    }
+
+    // Переходы, начатые до перезапуска; просроченные доставляются первой же пачкой
+    @EventListener(ApplicationReadyEvent.class)
+    @SuppressWarnings("unchecked")
+    public void restoreTransits() {
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "SELECT id, deliver_at FROM messages WHERE delivered = FALSE AND deliver_at IS NOT NULL")
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("deliver_at", LocalDateTime.class)
+                .getResultList();
+        rows.forEach(row -> transits.add(WarpTransit.of((Long) row[0], (LocalDateTime) row[1])));
+        log.info("Восстановлено сообщений в варпе: {}", rows.size());
+    }
+
+    private void deliverLoop() {
+        List<WarpTransit> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(transits.take());
+                transits.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Пачка из {} сообщений не доставлена, повтор через {} мс: {}",
+                        batch.size(), retryMs, e.getMessage());
+                LocalDateTime retryAt = LocalDateTime.now().plus(Duration.ofMillis(retryMs));
+                batch.forEach(transit -> transits.add(WarpTransit.of(transit.messageId(), retryAt)));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Один UPDATE на пачку, уже доставленные вручную сообщения пропускаются
+    private void deliver(List<WarpTransit> batch) {
+        List<Long> ids = batch.stream().map(WarpTransit::messageId).toList();
+        List<Long> delivered = deliveryTransaction.execute(status -> messageBulkUpdater.markDelivered(ids));
+        deliveredCounter.increment(delivered.size());
+    }
+
+    // Элемент очереди доставки: срок хранится в шкале System.nanoTime, не зависящей от перевода часов
+    private record WarpTransit(long messageId, long dueNanos) implements Delayed {
+
+        static WarpTransit of(long messageId, LocalDateTime deliverAt) {
+            long delayNanos = Duration.between(LocalDateTime.now(), deliverAt).toNanos();
+            return new WarpTransit(messageId, System.nanoTime() + delayNanos);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -80,6 +80,34 @@ BEGIN
 END;
 $func$ LANGUAGE plpgsql;
 
+-- Function for resolving a batch of crises in one call (used by the command dispatcher).
+-- Arrays are parallel; events that are already resolved and unknown actions are skipped,
+-- the event rows are locked so a concurrent batch cannot resolve the same crisis twice.
+-- Returns ids of the events this call actually resolved
+DROP FUNCTION IF EXISTS resolve_crises(BIGINT[], VARCHAR[], DECIMAL[], DECIMAL[]);
+CREATE OR REPLACE FUNCTION resolve_crises(
+    event_ids BIGINT[],
+    actions VARCHAR[],
+    resources_wealth DECIMAL[],
+    resources_industry DECIMAL[]
+) RETURNS SETOF BIGINT AS $func$
+DECLARE
+    crisis RECORD;
+BEGIN
+    FOR crisis IN
+        SELECT c.event_id, c.action, c.wealth, c.industry
+        FROM unnest(event_ids, actions, resources_wealth, resources_industry) AS c(event_id, action, wealth, industry)
+        JOIN events e ON e.id = c.event_id
+        WHERE e.resolved = FALSE AND c.action IN ('HELP', 'IGNORE')
+        FOR UPDATE OF e
+    LOOP
+        PERFORM resolve_crisis(crisis.event_id, crisis.action,
+                               COALESCE(crisis.wealth, 0), COALESCE(crisis.industry, 0));
+        RETURN NEXT crisis.event_id;
+    END LOOP;
+END;
+$func$ LANGUAGE plpgsql;
+
 -- Function for calculating empire resources
 CREATE OR REPLACE FUNCTION get_empire_resources(trader_id_param BIGINT)
 RETURNS TABLE(
@@ -168,3 +196,175 @@ BEGIN
     WHERE p.id = planet_id_param;
 END;
 $func$ LANGUAGE plpgsql;
+
+-- Function for bulk tax collection (one UPDATE per cycle instead of one per planet)
+CREATE OR REPLACE FUNCTION collect_taxes_bulk(trader_id_param BIGINT)
+RETURNS DECIMAL AS $func$
+DECLARE
+    total_tax DECIMAL;
+BEGIN
+    -- Tax from every loyal planet: 10% or the rate of its upgrades
+    WITH taxes AS (
+        SELECT p.id, p.wealth * COALESCE(m.tax_rate, 0.1) AS tax
+        FROM planets p
+        LEFT JOIN planet_modifiers m ON m.planet_id = p.id
+        WHERE p.trader_id = trader_id_param AND p.is_rebellious = FALSE
+    ), taxed AS (
+        UPDATE planets p
+        SET wealth = p.wealth - t.tax
+        FROM taxes t
+        WHERE p.id = t.id
+        RETURNING t.tax
+    )
+    SELECT COALESCE(SUM(tax), 0) INTO total_tax FROM taxed;
+
+    UPDATE rogue_traders
+    SET total_wealth = total_wealth + total_tax
+    WHERE id = trader_id_param;
+
+    RETURN total_tax;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Function for bulk loyalty drift (-2..+2 plus the upgrade drift, clamped to 0..100)
+-- Returns planets that were loyal before the drift and fell below 30
+-- seed_param - seed of the time cycle, drift is a hash of (planet id, seed) so the cycle is reproducible
+DROP FUNCTION IF EXISTS update_loyalty_bulk(BIGINT);
+CREATE OR REPLACE FUNCTION update_loyalty_bulk(trader_id_param BIGINT, seed_param BIGINT)
+RETURNS SETOF INT AS $func$
+BEGIN
+    RETURN QUERY
+    WITH before_drift AS (
+        SELECT p.id, COALESCE(p.is_rebellious, FALSE) AS was_rebellious, COALESCE(m.loyalty_drift, 0) AS drift
+        FROM planets p
+        LEFT JOIN planet_modifiers m ON m.planet_id = p.id
+        WHERE p.trader_id = trader_id_param
+    ), drifted AS (
+        UPDATE planets p
+        SET loyalty = LEAST(100, GREATEST(0,
+            p.loyalty + ((hashint8extended(p.id::BIGINT, seed_param) % 5 + 5) % 5 - 2)::INT + b.drift))
+        FROM before_drift b
+        WHERE p.id = b.id
+        RETURNING p.id, p.loyalty, b.was_rebellious
+    )
+    SELECT d.id FROM drifted d
+    WHERE d.loyalty < 30 AND NOT d.was_rebellious;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Function for bulk rebellion check
+-- candidate_ids - planets already flagged by rebellion_check trigger during the loyalty drift
+-- Returns ids of the created INSURRECTION events
+DROP FUNCTION IF EXISTS check_rebellions_bulk(BIGINT, INT[]);
+CREATE OR REPLACE FUNCTION check_rebellions_bulk(
+    trader_id_param BIGINT,
+    candidate_ids INT[]
+) RETURNS SETOF INT AS $func$
+BEGIN
+    RETURN QUERY
+    WITH flagged AS (
+        UPDATE planets
+        SET is_rebellious = TRUE
+        WHERE trader_id = trader_id_param
+          AND loyalty < 30
+          AND (is_rebellious = FALSE OR id = ANY(candidate_ids))
+        RETURNING id, name
+    ), created AS (
+        INSERT INTO events (planet_id, event_type, severity, description, resolved)
+        SELECT id, 'INSURRECTION', 8,
+               format('Мятеж на планете %s! Лояльность упала ниже 30%%', name), FALSE
+        FROM flagged
+        RETURNING id
+    )
+    SELECT id FROM created;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Function for rebuilding pending command counters from messages
+-- Called once on startup so counters match messages written before the trigger existed
+CREATE OR REPLACE FUNCTION rebuild_pending_command_counters()
+RETURNS VOID AS $func$
+BEGIN
+    UPDATE pending_command_counters SET pending = 0 WHERE pending <> 0;
+
+    INSERT INTO pending_command_counters (user_id, pending)
+    SELECT sender_id, COUNT(*)
+    FROM messages
+    WHERE completed = FALSE
+      AND message_type IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE')
+    GROUP BY sender_id
+    ON CONFLICT (user_id) DO UPDATE SET pending = EXCLUDED.pending;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Function for rebuilding message statistics from messages
+-- Called once on startup so statistics match messages written before the trigger existed
+CREATE OR REPLACE FUNCTION rebuild_message_stats()
+RETURNS VOID AS $func$
+BEGIN
+    UPDATE message_stats
+    SET sent = 0, delivered = 0, distorted = 0, received_commands = 0
+    WHERE sent <> 0 OR delivered <> 0 OR distorted <> 0 OR received_commands <> 0;
+
+    INSERT INTO message_stats (user_id, sent, delivered, distorted, received_commands)
+    SELECT user_id, SUM(sent), SUM(delivered), SUM(distorted), SUM(received_commands)
+    FROM (
+        SELECT sender_id AS user_id,
+               COUNT(*) AS sent,
+               COUNT(*) FILTER (WHERE delivered) AS delivered,
+               COUNT(*) FILTER (WHERE distorted) AS distorted,
+               0 AS received_commands
+        FROM messages
+        GROUP BY sender_id
+        UNION ALL
+        SELECT receiver_id, 0, 0, 0, COUNT(*)
+        FROM messages
+        WHERE message_type IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE')
+        GROUP BY receiver_id
+    ) totals
+    GROUP BY user_id
+    ON CONFLICT (user_id) DO UPDATE SET
+        sent = EXCLUDED.sent,
+        delivered = EXCLUDED.delivered,
+        distorted = EXCLUDED.distorted,
+        received_commands = EXCLUDED.received_commands;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Function for recomputing the combined upgrade modifiers of one planet
+-- Modifiers of installed upgrades are summed: tax rate 0.1 + sum (clamped to 0..0.5),
+-- loyalty drift sum (clamped to -5..5), event chance factor 1 + sum (clamped to 0..5)
+CREATE OR REPLACE FUNCTION refresh_planet_modifiers(planet_id_param INT)
+RETURNS VOID AS $func$
+BEGIN
+    DELETE FROM planet_modifiers WHERE planet_id = planet_id_param;
+
+    INSERT INTO planet_modifiers (planet_id, tax_rate, loyalty_drift, event_chance_factor)
+    SELECT pu.planet_id,
+           LEAST(0.5, GREATEST(0, 0.1 + SUM(u.tax_rate_modifier))),
+           LEAST(5, GREATEST(-5, SUM(u.loyalty_drift_modifier))),
+           LEAST(5, GREATEST(0, 1 + SUM(u.event_chance_modifier)))
+    FROM planet_upgrades pu
+    JOIN upgrades u ON u.id = pu.upgrade_id
+    WHERE pu.planet_id = planet_id_param
+    GROUP BY pu.planet_id;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Function for rebuilding all planet modifiers from planet_upgrades
+-- Called once on startup so modifiers match upgrades installed before the triggers existed
+CREATE OR REPLACE FUNCTION rebuild_planet_modifiers()
+RETURNS VOID AS $func$
+BEGIN
+    DELETE FROM planet_modifiers;
+
+    INSERT INTO planet_modifiers (planet_id, tax_rate, loyalty_drift, event_chance_factor)
+    SELECT pu.planet_id,
+           LEAST(0.5, GREATEST(0, 0.1 + SUM(u.tax_rate_modifier))),
+           LEAST(5, GREATEST(-5, SUM(u.loyalty_drift_modifier))),
+           LEAST(5, GREATEST(0, 1 + SUM(u.event_chance_modifier)))
+    FROM planet_upgrades pu
+    JOIN upgrades u ON u.id = pu.upgrade_id
+    GROUP BY pu.planet_id;
+END;
+$func$ LANGUAGE plpgsql;
@@ -11,8 +11,39 @@ CREATE INDEX IF NOT EXISTS idx_planets_trader_rebellious ON planets(trader_id, i
 CREATE INDEX IF NOT EXISTS idx_planets_type ON planets(planet_type);
 
 -- For messages
-CREATE INDEX IF NOT EXISTS idx_messages_sender ON messages(sender_id);
-CREATE INDEX IF NOT EXISTS idx_messages_receiver ON messages(receiver_id);
+-- Keyset pagination: (sent_at, id) pages per sender and receiver are read straight from the index.
+-- The composite indexes also serve plain sender_id / receiver_id lookups, so the old ones are dropped
+DROP INDEX IF EXISTS idx_messages_sender;
+DROP INDEX IF EXISTS idx_messages_receiver;
+CREATE INDEX IF NOT EXISTS idx_messages_sender_keyset ON messages(sender_id, sent_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_messages_receiver_keyset ON messages(receiver_id, sent_at DESC, id DESC);
+-- Completed commands are paged by completion date
+CREATE INDEX IF NOT EXISTS idx_messages_sender_completed_keyset ON messages(sender_id, completion_date DESC, id DESC)
+    WHERE completed = TRUE;
+-- Partial keyset indexes for the narrow message lists: only matching rows are indexed,
+-- so a page of undelivered messages or open commands never skips over the rest of the history
+CREATE INDEX IF NOT EXISTS idx_messages_sender_undelivered ON messages(sender_id, sent_at DESC, id DESC)
+    WHERE delivered = FALSE;
+CREATE INDEX IF NOT EXISTS idx_messages_receiver_undelivered ON messages(receiver_id, sent_at DESC, id DESC)
+    WHERE delivered = FALSE;
+CREATE INDEX IF NOT EXISTS idx_messages_receiver_commands ON messages(receiver_id, sent_at DESC, id DESC)
+    WHERE message_type IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE');
+CREATE INDEX IF NOT EXISTS idx_messages_receiver_open_commands ON messages(receiver_id, sent_at DESC, id DESC)
+    WHERE message_type IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND completed = FALSE;
+CREATE INDEX IF NOT EXISTS idx_messages_sender_open_commands ON messages(sender_id, sent_at DESC, id DESC)
+    WHERE message_type IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') AND completed = FALSE;
+-- Messages in warp transit, loaded into the delivery queue on startup
+CREATE INDEX IF NOT EXISTS idx_messages_warp_transit ON messages(deliver_at, id)
+    WHERE delivered = FALSE AND deliver_at IS NOT NULL;
+-- Typed command payload: lookups of commands by target and ON DELETE SET NULL of referenced rows.
+-- Only commands carry a payload, so the indexes stay small
+CREATE INDEX IF NOT EXISTS idx_messages_from_planet ON messages(from_planet_id) WHERE from_planet_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_messages_to_planet ON messages(to_planet_id) WHERE to_planet_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_messages_planet ON messages(planet_id) WHERE planet_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_messages_upgrade ON messages(upgrade_id) WHERE upgrade_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_messages_event ON messages(event_id) WHERE event_id IS NOT NULL;
+-- Full-text search over content (see MessageSearcher)
+CREATE INDEX IF NOT EXISTS idx_messages_content_search ON messages USING GIN (content_search);
 CREATE INDEX IF NOT EXISTS idx_messages_sent_at ON messages(sent_at DESC);
 CREATE INDEX IF NOT EXISTS idx_messages_type ON messages(message_type);
 CREATE INDEX IF NOT EXISTS idx_messages_command ON messages(command_id);
@@ -25,6 +56,9 @@ CREATE INDEX IF NOT EXISTS idx_events_planet_resolved ON events(planet_id, resol
 -- For projects
 CREATE INDEX IF NOT EXISTS idx_projects_planet_status ON projects(planet_id, status);
 CREATE INDEX IF NOT EXISTS idx_projects_upgrade ON projects(upgrade_id);
+-- Partial index for per-trader project progression in the time cycle
+CREATE INDEX IF NOT EXISTS idx_projects_active ON projects(planet_id, status, id)
+    WHERE status IN ('PLANNED', 'IN_PROGRESS');
 
 -- For routes
 CREATE INDEX IF NOT EXISTS idx_routes_navigator ON routes(navigator_id);
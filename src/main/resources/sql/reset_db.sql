@@ -2,6 +2,10 @@ DROP TABLE IF EXISTS planet_upgrades CASCADE;
 DROP TABLE IF EXISTS projects CASCADE;
 DROP TABLE IF EXISTS upgrades CASCADE;
 DROP TABLE IF EXISTS events CASCADE;
+DROP TABLE IF EXISTS pending_command_counters CASCADE;
+DROP TABLE IF EXISTS message_stats CASCADE;
+DROP TABLE IF EXISTS tick_checkpoints CASCADE;
+DROP TABLE IF EXISTS planet_modifiers CASCADE;
 DROP TABLE IF EXISTS messages CASCADE;
 DROP TABLE IF EXISTS routes CASCADE;
 DROP TABLE IF EXISTS governors CASCADE;
@@ -17,7 +21,19 @@ DROP FUNCTION IF EXISTS check_upgrade_compatibility CASCADE;
 DROP FUNCTION IF EXISTS add_to_planet_upgrades CASCADE;
 DROP FUNCTION IF EXISTS send_message CASCADE;
 DROP FUNCTION IF EXISTS resolve_crisis CASCADE;
+DROP FUNCTION IF EXISTS resolve_crises CASCADE;
 DROP FUNCTION IF EXISTS get_empire_resources CASCADE;
 DROP FUNCTION IF EXISTS get_installed_upgrades CASCADE;
 DROP FUNCTION IF EXISTS can_install_upgrade CASCADE;
-DROP FUNCTION IF EXISTS get_planet_stats_with_upgrades CASCADE;
\ No newline at end of file
+DROP FUNCTION IF EXISTS get_planet_stats_with_upgrades CASCADE;
+DROP FUNCTION IF EXISTS collect_taxes_bulk CASCADE;
+DROP FUNCTION IF EXISTS update_loyalty_bulk CASCADE;
+DROP FUNCTION IF EXISTS check_rebellions_bulk CASCADE;
+DROP FUNCTION IF EXISTS rebuild_pending_command_counters CASCADE;
+DROP FUNCTION IF EXISTS maintain_pending_command_counters CASCADE;
+DROP FUNCTION IF EXISTS rebuild_message_stats CASCADE;
+DROP FUNCTION IF EXISTS maintain_message_stats CASCADE;
+DROP FUNCTION IF EXISTS refresh_planet_modifiers CASCADE;
+DROP FUNCTION IF EXISTS rebuild_planet_modifiers CASCADE;
+DROP FUNCTION IF EXISTS refresh_planet_modifiers_on_install CASCADE;
+DROP FUNCTION IF EXISTS refresh_planet_modifiers_on_upgrade_change CASCADE;
@@ -18,9 +18,12 @@ CREATE TABLE IF NOT EXISTS rogue_traders (
     dynasty_name VARCHAR(255) NOT NULL,
     warrant_number VARCHAR(100) UNIQUE,
     total_wealth DECIMAL(20,2) DEFAULT 1000000.00,
-    influence INT DEFAULT 50 CHECK (influence >= 0 AND influence <= 100)
+    influence INT DEFAULT 50 CHECK (influence >= 0 AND influence <= 100),
+    current_cycle BIGINT DEFAULT 0
 );
 
+ALTER TABLE rogue_traders ADD COLUMN IF NOT EXISTS current_cycle BIGINT DEFAULT 0;
+
 -- 3. Planets table
 CREATE TABLE IF NOT EXISTS planets (
     id SERIAL PRIMARY KEY,
@@ -93,6 +96,11 @@ CREATE TABLE IF NOT EXISTS messages (
     CONSTRAINT fk_messages_sender FOREIGN KEY (sender_id) REFERENCES users(id),
     CONSTRAINT fk_messages_receiver FOREIGN KEY (receiver_id) REFERENCES users(id)
 );
+-- Due time of warp transit for messages sent by astropaths (NULL - delivered manually)
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS deliver_at TIMESTAMP;
+-- Full-text search document of the content: Russian and English stemming, computed by PostgreSQL on write
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS content_search TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('russian'::regconfig, content) || to_tsvector('english'::regconfig, content)) STORED;
 
 -- 9. Upgrades table
 CREATE TABLE IF NOT EXISTS upgrades (
@@ -113,6 +121,43 @@ CREATE TABLE IF NOT EXISTS upgrades (
     ))
 );
 
+-- Effects of an installed upgrade on the time cycle
+ALTER TABLE upgrades ADD COLUMN IF NOT EXISTS tax_rate_modifier DECIMAL(5,4) NOT NULL DEFAULT 0;
+ALTER TABLE upgrades ADD COLUMN IF NOT EXISTS loyalty_drift_modifier INT NOT NULL DEFAULT 0;
+ALTER TABLE upgrades ADD COLUMN IF NOT EXISTS event_chance_modifier DECIMAL(5,4) NOT NULL DEFAULT 0;
+
+-- Modifier values of the catalog upgrades: added to the tax rate, to the loyalty drift per cycle
+-- and to the event chance factor (summed over the upgrades installed on a planet).
+-- Idempotent: only rows whose values differ are updated, so planet_modifiers_upgrade_refresh
+-- rebuilds planet_modifiers only when a value actually changes
+UPDATE upgrades u SET tax_rate_modifier = m.tax, loyalty_drift_modifier = m.drift, event_chance_modifier = m.events
+FROM (VALUES
+    ('Терраформирование полей',            0.0200,  0,  0.0000),
+    ('Автоматизированная ирригация',       0.0100,  0, -0.1000),
+    ('Генная модификация культур',         0.0300, -1,  0.0000),
+    ('Магна-фабрика',                      0.0500, -1,  0.1000),
+    ('Плазменные печи',                    0.0300,  0,  0.0500),
+    ('Роботизированная сборочная линия',   0.0400,  0,  0.0000),
+    ('Глубинные буровые установки',        0.0400, -1,  0.1000),
+    ('Автоматизированные шахты',           0.0300,  0,  0.0000),
+    ('Очистные комплексы',                 0.0200,  0, -0.0500),
+    ('Аркология',                          0.0500,  0,  0.1000),
+    ('Транзитные узлы',                    0.0200,  0, -0.1000),
+    ('Системы жизнеобеспечения',           0.0000,  1, -0.1500),
+    ('Университетский комплекс',           0.0100,  1,  0.0000),
+    ('Торговый хаб',                       0.0500,  0,  0.0500),
+    ('Дипломатический центр',              0.0000,  1, -0.2000),
+    ('Оборонные укрепления',               0.0000,  0, -0.3000),
+    ('Исследовательские станции',          0.0200,  0,  0.1000),
+    ('Подземные убежища',                  0.0000,  1, -0.2000),
+    ('Замковые укрепления',                0.0000,  1, -0.1500),
+    ('Сельскохозяйственные общины',        0.0200,  1,  0.0000),
+    ('Рыцарские ордены',                   0.0000,  2, -0.1000)
+) AS m(name, tax, drift, events)
+WHERE u.name = m.name
+  AND (u.tax_rate_modifier, u.loyalty_drift_modifier, u.event_chance_modifier)
+      IS DISTINCT FROM (m.tax, m.drift, m.events);
+
 -- 10. Many-to-many association table for planets and upgrades
 CREATE TABLE IF NOT EXISTS planet_upgrades (
     planet_id INT NOT NULL REFERENCES planets(id) ON DELETE CASCADE,
@@ -147,3 +192,81 @@ CREATE TABLE IF NOT EXISTS events (
     resolved BOOLEAN DEFAULT FALSE,
     occurred_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+
+-- 13. Pending command counters per sender (maintained by pending_commands_count trigger)
+CREATE TABLE IF NOT EXISTS pending_command_counters (
+    user_id INT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    pending INT NOT NULL DEFAULT 0 CHECK (pending >= 0)
+);
+
+-- 14. Checkpoints of time cycles committed in chunks
+CREATE TABLE IF NOT EXISTS tick_checkpoints (
+    trader_id INT PRIMARY KEY REFERENCES rogue_traders(id) ON DELETE CASCADE,
+    cycle BIGINT NOT NULL,
+    last_planet_id INT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 15. Combined upgrade modifiers per planet (maintained by planet_modifiers_refresh triggers)
+-- Planets without upgrades have no row: tax rate 0.1, loyalty drift 0, event chance factor 1
+CREATE TABLE IF NOT EXISTS planet_modifiers (
+    planet_id INT PRIMARY KEY REFERENCES planets(id) ON DELETE CASCADE,
+    tax_rate DECIMAL(5,4) NOT NULL,
+    loyalty_drift INT NOT NULL,
+    event_chance_factor DECIMAL(5,4) NOT NULL
+);
+
+-- 16. Message statistics per user (maintained by message_stats_count trigger)
+-- sent/delivered/distorted count messages sent by the user, received_commands - commands addressed to the user
+CREATE TABLE IF NOT EXISTS message_stats (
+    user_id INT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    sent INT NOT NULL DEFAULT 0 CHECK (sent >= 0),
+    delivered INT NOT NULL DEFAULT 0 CHECK (delivered >= 0),
+    distorted INT NOT NULL DEFAULT 0 CHECK (distorted >= 0),
+    received_commands INT NOT NULL DEFAULT 0 CHECK (received_commands >= 0)
+);
+
+-- 17. Typed command payload executed by the command dispatcher:
+-- NAVIGATION_REQUEST - from/to planet, UPGRADE_REQUEST - planet and upgrade, CRISIS_RESPONSE - event and action.
+-- Added once; pending commands sent before the columns existed are backfilled from command_id and content
+DO $func$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'messages' AND column_name = 'event_id') THEN
+        ALTER TABLE messages
+            ADD COLUMN from_planet_id INT REFERENCES planets(id) ON DELETE SET NULL,
+            ADD COLUMN to_planet_id INT REFERENCES planets(id) ON DELETE SET NULL,
+            ADD COLUMN planet_id INT REFERENCES planets(id) ON DELETE SET NULL,
+            ADD COLUMN upgrade_id INT REFERENCES upgrades(id) ON DELETE SET NULL,
+            ADD COLUMN event_id INT REFERENCES events(id) ON DELETE SET NULL,
+            ADD COLUMN crisis_action VARCHAR(10) CHECK (crisis_action IN ('HELP', 'IGNORE'));
+
+        UPDATE messages m
+        SET from_planet_id = (SELECT p.id FROM planets p
+                              WHERE p.id = substring(m.content from 'от планеты .*?\(ID: (\d+)\)')::INT),
+            to_planet_id = (SELECT p.id FROM planets p
+                            WHERE p.id = substring(m.content from 'к планете .*?\(ID: (\d+)\)')::INT)
+        WHERE m.message_type = 'NAVIGATION_REQUEST' AND m.completed = FALSE;
+
+        UPDATE messages m
+        SET planet_id = p.id
+        FROM planets p
+        WHERE p.id = m.command_id AND m.message_type = 'UPGRADE_REQUEST' AND m.completed = FALSE;
+
+        UPDATE messages m
+        SET event_id = e.id,
+            crisis_action = CASE WHEN m.content LIKE 'Игнорирование%' THEN 'IGNORE' ELSE 'HELP' END
+        FROM events e
+        WHERE e.id = m.command_id AND m.message_type = 'CRISIS_RESPONSE' AND m.completed = FALSE;
+    END IF;
+END;
+$func$;
+
+-- ID sequences of batch-inserted tables: step 50 matches allocationSize of @SequenceGenerator,
+-- so Hibernate reserves 50 ids per nextval and can batch INSERTs (IDENTITY disables batching).
+-- Plain INSERTs using the SERIAL default still get unique ids, just with gaps
+ALTER SEQUENCE planets_id_seq INCREMENT BY 50;
+ALTER SEQUENCE events_id_seq INCREMENT BY 50;
+ALTER SEQUENCE messages_id_seq INCREMENT BY 50;
+ALTER SEQUENCE projects_id_seq INCREMENT BY 50;
+ALTER SEQUENCE routes_id_seq INCREMENT BY 50;
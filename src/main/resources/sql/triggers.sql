@@ -122,3 +122,142 @@ CREATE TRIGGER project_completion
 AFTER UPDATE ON projects
 FOR EACH ROW
 EXECUTE FUNCTION add_to_planet_upgrades();
+
+-- Trigger function for maintaining pending command counters per sender
+CREATE OR REPLACE FUNCTION maintain_pending_command_counters()
+RETURNS TRIGGER AS $func$
+DECLARE
+    was_pending BOOLEAN := FALSE;
+    is_pending BOOLEAN := FALSE;
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        was_pending := OLD.completed IS FALSE
+            AND COALESCE(OLD.message_type, '') IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE');
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        is_pending := NEW.completed IS FALSE
+            AND COALESCE(NEW.message_type, '') IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE');
+    END IF;
+
+    IF TG_OP = 'UPDATE' AND was_pending = is_pending AND OLD.sender_id = NEW.sender_id THEN
+        RETURN NULL;
+    END IF;
+
+    IF was_pending THEN
+        UPDATE pending_command_counters SET pending = pending - 1 WHERE user_id = OLD.sender_id;
+    END IF;
+    IF is_pending THEN
+        INSERT INTO pending_command_counters (user_id, pending)
+        VALUES (NEW.sender_id, 1)
+        ON CONFLICT (user_id) DO UPDATE SET pending = pending_command_counters.pending + 1;
+    END IF;
+    RETURN NULL;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Drop trigger if exists and create new one
+DROP TRIGGER IF EXISTS pending_commands_count ON messages;
+CREATE TRIGGER pending_commands_count
+AFTER INSERT OR UPDATE OF completed, message_type, sender_id OR DELETE ON messages
+FOR EACH ROW
+EXECUTE FUNCTION maintain_pending_command_counters();
+
+-- Reconcile counters with existing messages
+SELECT rebuild_pending_command_counters();
+
+-- Trigger function for maintaining message statistics of sender and receiver
+-- The old row is subtracted and the new row is added, so an update moves only the changed flags
+CREATE OR REPLACE FUNCTION maintain_message_stats()
+RETURNS TRIGGER AS $func$
+BEGIN
+    IF TG_OP = 'UPDATE'
+       AND OLD.sender_id = NEW.sender_id
+       AND OLD.receiver_id = NEW.receiver_id
+       AND OLD.delivered IS NOT DISTINCT FROM NEW.delivered
+       AND OLD.distorted IS NOT DISTINCT FROM NEW.distorted
+       AND OLD.message_type IS NOT DISTINCT FROM NEW.message_type THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP <> 'INSERT' THEN
+        UPDATE message_stats
+        SET sent = sent - 1,
+            delivered = delivered - (OLD.delivered IS TRUE)::INT,
+            distorted = distorted - (OLD.distorted IS TRUE)::INT
+        WHERE user_id = OLD.sender_id;
+        IF COALESCE(OLD.message_type, '') IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') THEN
+            UPDATE message_stats SET received_commands = received_commands - 1 WHERE user_id = OLD.receiver_id;
+        END IF;
+    END IF;
+
+    IF TG_OP <> 'DELETE' THEN
+        INSERT INTO message_stats (user_id, sent, delivered, distorted)
+        VALUES (NEW.sender_id, 1, (NEW.delivered IS TRUE)::INT, (NEW.distorted IS TRUE)::INT)
+        ON CONFLICT (user_id) DO UPDATE SET
+            sent = message_stats.sent + 1,
+            delivered = message_stats.delivered + EXCLUDED.delivered,
+            distorted = message_stats.distorted + EXCLUDED.distorted;
+        IF COALESCE(NEW.message_type, '') IN ('NAVIGATION_REQUEST', 'UPGRADE_REQUEST', 'CRISIS_RESPONSE') THEN
+            INSERT INTO message_stats (user_id, received_commands)
+            VALUES (NEW.receiver_id, 1)
+            ON CONFLICT (user_id) DO UPDATE SET received_commands = message_stats.received_commands + 1;
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Drop trigger if exists and create new one
+DROP TRIGGER IF EXISTS message_stats_count ON messages;
+CREATE TRIGGER message_stats_count
+AFTER INSERT OR UPDATE OF sender_id, receiver_id, delivered, distorted, message_type OR DELETE ON messages
+FOR EACH ROW
+EXECUTE FUNCTION maintain_message_stats();
+
+-- Reconcile statistics with existing messages
+SELECT rebuild_message_stats();
+
+-- Trigger function for refreshing planet modifiers when upgrades are installed or removed
+CREATE OR REPLACE FUNCTION refresh_planet_modifiers_on_install()
+RETURNS TRIGGER AS $func$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_planet_modifiers(OLD.planet_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND (TG_OP = 'INSERT' OR NEW.planet_id <> OLD.planet_id) THEN
+        PERFORM refresh_planet_modifiers(NEW.planet_id);
+    END IF;
+    RETURN NULL;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Drop trigger if exists and create new one
+DROP TRIGGER IF EXISTS planet_modifiers_refresh ON planet_upgrades;
+CREATE TRIGGER planet_modifiers_refresh
+AFTER INSERT OR UPDATE OR DELETE ON planet_upgrades
+FOR EACH ROW
+EXECUTE FUNCTION refresh_planet_modifiers_on_install();
+
+-- Trigger function for refreshing planet modifiers when the modifiers of an upgrade change
+CREATE OR REPLACE FUNCTION refresh_planet_modifiers_on_upgrade_change()
+RETURNS TRIGGER AS $func$
+BEGIN
+    PERFORM refresh_planet_modifiers(pu.planet_id)
+    FROM planet_upgrades pu
+    WHERE pu.upgrade_id = NEW.id;
+    RETURN NULL;
+END;
+$func$ LANGUAGE plpgsql;
+
+-- Drop trigger if exists and create new one
+DROP TRIGGER IF EXISTS planet_modifiers_upgrade_refresh ON upgrades;
+CREATE TRIGGER planet_modifiers_upgrade_refresh
+AFTER UPDATE OF tax_rate_modifier, loyalty_drift_modifier, event_chance_modifier ON upgrades
+FOR EACH ROW
+WHEN (OLD.tax_rate_modifier IS DISTINCT FROM NEW.tax_rate_modifier
+   OR OLD.loyalty_drift_modifier IS DISTINCT FROM NEW.loyalty_drift_modifier
+   OR OLD.event_chance_modifier IS DISTINCT FROM NEW.event_chance_modifier)
+EXECUTE FUNCTION refresh_planet_modifiers_on_upgrade_change();
+
+-- Reconcile modifiers with existing planet upgrades
+SELECT rebuild_planet_modifiers();
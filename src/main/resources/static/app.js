@@ -1,6 +1,7 @@
 const { useState, useEffect } = React;
 
 const API_BASE_URL = 'http://localhost:40000/api';
+const WS_URL = API_BASE_URL.replace(/^http/, 'ws').replace(/\/api$/, '/ws');
 
 // User Roles
 const UserRole = {
@@ -103,7 +104,7 @@ const api = {
   },
 
   // Messages
-  async sendMessage(senderId, receiverId, content, messageType, commandId = null, resourcesWealth = 0, resourcesIndustry = 0, resourcesResources = 0, distortionChance = 0.1) {
+  async sendMessage(senderId, receiverId, content, messageType, commandId = null, resourcesWealth = 0, resourcesIndustry = 0, resourcesResources = 0, distortionChance = 0.1, payload = null) {
     const messageTypeValue = typeof messageType === 'string' ? messageType : messageType;
 
     return this.request('/messages', {
@@ -117,7 +118,8 @@ const api = {
         resourcesWealth: resourcesWealth ? parseFloat(resourcesWealth) : 0,
         resourcesIndustry: resourcesIndustry ? parseFloat(resourcesIndustry) : 0,
         resourcesResources: resourcesResources ? parseFloat(resourcesResources) : 0,
-        distortionChance: distortionChance ? parseFloat(distortionChance) : 0.1
+        distortionChance: distortionChance ? parseFloat(distortionChance) : 0.1,
+        payload
       }),
     });
   },
@@ -219,6 +221,12 @@ const api = {
     });
   },
 
+  async executeGovernorCommand(messageId) {
+    return this.request(`/governors/commands/${messageId}/execute`, {
+      method: 'POST',
+    });
+  },
+
   // Time
   async advanceTimeCycle(traderId) {
     return this.request(`/time/advance/${traderId}`, {
@@ -232,7 +240,7 @@ const api = {
   },
 
   // Astropath
-  async astropathSendMessage(astropathId, receiverId, content, messageType, commandId, resourcesWealth, resourcesIndustry, resourcesResources, distortionChance) {
+  async astropathSendMessage(astropathId, receiverId, content, messageType, commandId, resourcesWealth, resourcesIndustry, resourcesResources, distortionChance, payload = null) {
     return this.request(`/astropaths/${astropathId}/send`, {
       method: 'POST',
       body: JSON.stringify({
@@ -244,7 +252,8 @@ const api = {
         resourcesWealth,
         resourcesIndustry,
         resourcesResources,
-        distortionChance
+        distortionChance,
+        payload
       }),
     });
   },
@@ -256,6 +265,54 @@ const api = {
   }
 };
 
+// Message notifications (STOMP): данные перезагружаются по событию вместо опроса REST API
+function useMessageNotifications(userId, onNotification) {
+  const handlerRef = React.useRef(onNotification);
+  handlerRef.current = onNotification;
+
+  useEffect(() => {
+    const token = localStorage.getItem('token');
+    if (!userId || !token || !window.StompJs) return;
+
+    const client = new StompJs.Client({
+      brokerURL: WS_URL,
+      connectHeaders: { Authorization: `Bearer ${token}` },
+      reconnectDelay: 5000,
+      onConnect: () => {
+        client.subscribe('/user/queue/messages', (frame) => handlerRef.current(JSON.parse(frame.body)));
+      }
+    });
+    client.activate();
+    return () => client.deactivate();
+  }, [userId]);
+}
+
+// Trader event stream (SSE): события за один цикл приходят пачкой, поэтому перезагрузка откладывается
+function useTraderEventStream(traderId, onChange) {
+  const handlerRef = React.useRef(onChange);
+  handlerRef.current = onChange;
+
+  useEffect(() => {
+    const token = localStorage.getItem('token');
+    if (!traderId || !token) return;
+
+    let reloadTimer = null;
+    const scheduleReload = () => {
+      clearTimeout(reloadTimer);
+      reloadTimer = setTimeout(() => handlerRef.current(), 500);
+    };
+
+    // EventSource сам переподключается и передает Last-Event-ID
+    const source = new EventSource(`${API_BASE_URL}/events/trader/${traderId}/stream?access_token=${encodeURIComponent(token)}`);
+    source.addEventListener('event', scheduleReload);
+    source.addEventListener('reset', scheduleReload);
+    return () => {
+      clearTimeout(reloadTimer);
+      source.close();
+    };
+  }, [traderId]);
+}
+
 // Empire Map Component (исправленная версия)
 function EmpireMap({ planets, routes, onPlanetClick, showDetails = true, interactive = false }) {
   const canvasRef = React.useRef(null);
@@ -749,6 +806,9 @@ function TraderDashboard({ user }) {
     }
   }, [user.traderId]);
 
+  useMessageNotifications(user.id || user.userId, () => loadData());
+  useTraderEventStream(user.traderId, () => loadData());
+
   const loadData = async () => {
     if (!user.traderId) return;
     setLoading(true);
@@ -772,7 +832,7 @@ function TraderDashboard({ user }) {
 
       // Фильтруем команды, созданные торговцем
       const traderCommands = messages.filter(msg =>
-          msg.sender && (msg.sender.id === user.id || msg.sender.id === user.userId)
+          msg.senderId === user.id || msg.senderId === user.userId
       );
 
       // Объединяем с явно полученными выполненными командами для гарантированного обновления статуса
@@ -873,7 +933,8 @@ function TraderDashboard({ user }) {
           upgrade.costWealth,
           upgrade.costIndustry,
           upgrade.costResources,
-          0.1
+          0.1,
+          { planetId: parseInt(newCommand.planetId), upgradeId: parseInt(newCommand.upgradeId) }
       );
 
       setMessage({ type: 'success', text: 'Команда на улучшение отправлена астропату' });
@@ -926,7 +987,8 @@ function TraderDashboard({ user }) {
           action === 'HELP' ? crisisResources.wealth : 0,
           action === 'HELP' ? crisisResources.industry : 0,
           0,
-          0.15
+          0.15,
+          { eventId: selectedEvent.id, crisisAction: action }
       );
 
       setMessage({
@@ -959,7 +1021,7 @@ function TraderDashboard({ user }) {
         throw new Error('ID пользователя не найден');
       }
 
-      // Включаем ID планет в текст, чтобы навигатор мог распознать команду
+      // Планеты маршрута передаются параметрами команды, текст - для навигатора
       const content =
           `Прокладка варп-маршрута от планеты ${fromPlanet.name} (ID: ${fromPlanet.id}) ` +
           `к планете ${toPlanet.name} (ID: ${toPlanet.id}) для навигатора ID: ${routeData.navigatorId}`;
@@ -971,7 +1033,8 @@ function TraderDashboard({ user }) {
           content,
           MessageType.NAVIGATION_REQUEST,
           routeData.navigatorId,  // commandId = navigatorId
-          0, 0, 0, 0.1
+          0, 0, 0, 0.1,
+          { fromPlanetId: parseInt(routeData.fromPlanetId), toPlanetId: parseInt(routeData.toPlanetId) }
       );
 
       setMessage({ type: 'success', text: 'Команда на прокладку маршрута отправлена астропату' });
@@ -1564,7 +1627,7 @@ function TraderDashboard({ user }) {
                     <tr key={cmd.id}>
                       <td>{getMessageTypeDisplay(cmd.messageType)}</td>
                       <td>{cmd.content}</td>
-                      <td>{cmd.receiver?.email || 'Астропат'}</td>
+                      <td>{cmd.receiverEmail || 'Астропат'}</td>
                       <td>
                     <span className={`status-badge ${cmd.completed ? 'status-completed' : 'status-in-progress'}`}>
                       {cmd.completed ? '✅ Выполнена' : '⏳ В работе'}
@@ -1600,6 +1663,8 @@ function GovernorDashboard({ user }) {
     }
   }, [user.id, user.planetId]);
 
+  useMessageNotifications(user.id || user.userId, () => user.planetId && loadData());
+
   const loadData = async () => {
     setLoading(true);
     try {
@@ -1620,8 +1685,13 @@ function GovernorDashboard({ user }) {
 
   const handleExecuteCommand = async (messageId, commandType) => {
     try {
-      // Помечаем команду как выполненную
-      await api.markCommandCompleted(messageId);
+      // Сервер выполняет команду по её параметрам и сам отмечает её выполненной
+      const result = await api.executeGovernorCommand(messageId);
+      const failure = result.failed?.[messageId];
+      if (failure) {
+        setMessage({ type: 'error', text: `Команда не выполнена: ${failure}` });
+        return;
+      }
 
       if (commandType === 'UPGRADE_REQUEST') {
         setMessage({ type: 'success', text: 'Улучшение построено' });
@@ -1630,11 +1700,11 @@ function GovernorDashboard({ user }) {
       }
 
       // Отправляем отчет астропату
-      const astropath = commands.find(cmd => cmd.sender?.role === UserRole.ASTROPATH)?.sender;
-      if (astropath) {
+      const astropathId = commands.find(cmd => cmd.senderRole === UserRole.ASTROPATH)?.senderId;
+      if (astropathId) {
         await api.sendMessage(
             user.id || user.userId,
-            astropath.id,
+            astropathId,
             'Команда выполнена успешно',
             MessageType.STATUS_UPDATE,
             messageId,
@@ -1657,9 +1727,9 @@ function GovernorDashboard({ user }) {
 
       // Находим астропата
       const commandsData = await api.getCommandsForReceiver(user.id || user.userId);
-      const astropath = commandsData.find(cmd => cmd.sender?.role === UserRole.ASTROPATH)?.sender;
+      const astropathId = commandsData.find(cmd => cmd.senderRole === UserRole.ASTROPATH)?.senderId;
 
-      if (astropath) {
+      if (astropathId) {
         const senderId = user.id || user.userId;
         if (!senderId) {
           throw new Error('ID пользователя не найден');
@@ -1667,7 +1737,7 @@ function GovernorDashboard({ user }) {
 
         await api.sendMessage(
             senderId,
-            astropath.id,
+            astropathId,
             content,
             MessageType.RESOURCES_TRANSFER,
             null,
@@ -1776,7 +1846,7 @@ function GovernorDashboard({ user }) {
                               <strong style={{ color: '#ffd700' }}>{getMessageTypeDisplay(cmd.messageType)}</strong>
                               <p style={{ color: '#aaa', marginTop: '5px' }}>{cmd.content}</p>
                               <p style={{ color: '#666', fontSize: '12px', marginTop: '5px' }}>
-                                От: {cmd.sender?.email || 'Вольный торговец'}
+                                От: {cmd.senderEmail || 'Вольный торговец'}
                               </p>
                             </div>
                             <div style={{ textAlign: 'right' }}>
@@ -1901,6 +1971,8 @@ function NavigatorDashboard({ user }) {
     }
   }, [user.id, user.navigatorId]);
 
+  useMessageNotifications(user.id || user.userId, () => loadData());
+
   const loadData = async () => {
     setLoading(true);
     try {
@@ -1937,38 +2009,13 @@ function NavigatorDashboard({ user }) {
 
   const handleExecuteRouteCommand = async (messageId) => {
     try {
-      const command = commands.find(cmd => cmd.id === messageId);
-      if (!command) return;
-
-      const content = command.content;
-
-      // Улучшенный парсинг - ищем ID планет и навигатора
-      const planetIdRegex = /ID:\s*(\d+)/g;
-      const matches = [...content.matchAll(planetIdRegex)];
-
-      let fromPlanetId, toPlanetId, navigatorId;
-
-      if (matches.length >= 2) {
-        fromPlanetId = parseInt(matches[0][1]);
-        toPlanetId = parseInt(matches[1][1]);
-
-        // Ищем ID навигатора
-        const navigatorMatch = content.match(/навигатора ID:\s*(\d+)/);
-        navigatorId = navigatorMatch ? parseInt(navigatorMatch[1]) :
-            (user.navigatorId || user.id);
-      } else {
-        // Старый способ парсинга
-        const oldFromMatch = content.match(/от планеты[^\d]*(\d+)/);
-        const oldToMatch = content.match(/к планете[^\d]*(\d+)/);
-        fromPlanetId = oldFromMatch ? parseInt(oldFromMatch[1]) : null;
-        toPlanetId = oldToMatch ? parseInt(oldToMatch[1]) : null;
-        navigatorId = user.navigatorId || user.id;
+      // Планеты маршрута берутся из параметров команды на сервере
+      const result = await api.executeRouteCommand(messageId);
+      const failure = result.failed?.[messageId];
+      if (failure) {
+        setMessage({ type: 'error', text: `Маршрут не проложен: ${failure}` });
+        return;
       }
-
-      // Используем новый API метод для выполнения команды, если ID планет не найдены
-      // или если хотим использовать серверную логику (рекомендуется)
-      await api.executeRouteCommand(messageId);
-      await api.markCommandCompleted(messageId);
       setMessage({ type: 'success', text: 'Маршрут проложен, команда выполнена' });
       loadData();
     } catch (error) {
@@ -2099,7 +2146,7 @@ function NavigatorDashboard({ user }) {
                           }}>
                             <p style={{ color: '#e0e0e0' }}>{cmd.content}</p>
                             <p style={{ color: '#666', fontSize: '12px', marginTop: '5px' }}>
-                              От: {cmd.sender?.email || 'Вольный торговец'}
+                              От: {cmd.senderEmail || 'Вольный торговец'}
                             </p>
                             <button
                                 className="btn btn-primary"
@@ -2181,6 +2228,8 @@ function AstropathDashboard({ user }) {
     }
   }, [user.userId, user.id]);
 
+  useMessageNotifications(user.userId || user.id, () => loadData());
+
   const loadData = async () => {
     setLoading(true);
     try {
@@ -2221,7 +2270,15 @@ function AstropathDashboard({ user }) {
           originalMessage.resourcesWealth,
           originalMessage.resourcesIndustry,
           originalMessage.resourcesResources,
-          user.psiLevel < 4 ? 0.3 : user.psiLevel < 7 ? 0.2 : 0.1
+          user.psiLevel < 4 ? 0.3 : user.psiLevel < 7 ? 0.2 : 0.1,
+          {
+            fromPlanetId: originalMessage.fromPlanetId,
+            toPlanetId: originalMessage.toPlanetId,
+            planetId: originalMessage.planetId,
+            upgradeId: originalMessage.upgradeId,
+            eventId: originalMessage.eventId,
+            crisisAction: originalMessage.crisisAction
+          }
       );
 
       // Помечаем оригинальное сообщение как доставленное астропату
@@ -2380,7 +2437,7 @@ function AstropathDashboard({ user }) {
                         >
                           <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center' }}>
                             <div>
-                              <strong style={{ color: '#e0e0e0' }}>От: {msg.sender?.email || 'Неизвестно'}</strong>
+                              <strong style={{ color: '#e0e0e0' }}>От: {msg.senderEmail || 'Неизвестно'}</strong>
                               <p style={{ color: '#aaa', marginTop: '5px', fontSize: '14px' }}>
                                 {msg.content}
                               </p>
@@ -2447,7 +2504,7 @@ function AstropathDashboard({ user }) {
                     >
                       <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center' }}>
                         <div>
-                          <strong style={{ color: '#e0e0e0' }}>Кому: {msg.receiver?.email || 'Неизвестно'}</strong>
+                          <strong style={{ color: '#e0e0e0' }}>Кому: {msg.receiverEmail || 'Неизвестно'}</strong>
                           <p style={{
                             color: msg.distorted ? '#ff6b6b' : '#aaa',
                             marginTop: '5px',
@@ -2483,14 +2540,14 @@ function AstropathDashboard({ user }) {
                 </h3>
                 <div style={{ marginBottom: '15px' }}>
                   <strong style={{ color: '#aaa' }}>Отправитель:</strong>
-                  <p style={{ color: '#e0e0e0' }}>{selectedMessage.sender?.email || 'Неизвестно'}</p>
+                  <p style={{ color: '#e0e0e0' }}>{selectedMessage.senderEmail || 'Неизвестно'}</p>
                 </div>
                 <div style={{ marginBottom: '15px' }}>
                   <strong style={{ color: '#aaa' }}>Получатель:</strong>
                   <p style={{ color: '#e0e0e0' }}>
                     {selectedMessage.recipient
                         ? `${selectedMessage.recipient.email} (${getRoleDisplay(selectedMessage.recipient.role)})`
-                        : selectedMessage.receiver?.email || 'Неизвестно'}
+                        : selectedMessage.receiverEmail || 'Неизвестно'}
                   </p>
                 </div>
                 <div style={{ marginBottom: '15px' }}>
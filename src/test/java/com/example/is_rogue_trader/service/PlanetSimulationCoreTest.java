@@ -0,0 +1,154 @@
+package com.example.is_rogue_trader.service;
+
+import com.example.is_rogue_trader.model.entity.Planet;
+import com.example.is_rogue_trader.model.entity.PlanetModifier;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * TimeService.fastForward ведёт N циклов над одним ядром и пишет результат один раз,
+ * а N вызовов в режиме FUSED пишут планеты после каждого цикла, и на записи срабатывает
+ * триггер rebellion_check. При одном seed оба пути должны оставить одинаковое состояние планет
+ */
+class PlanetSimulationCoreTest {
+    private static final long BASE_SEED = 42L;
+    private static final long TRADER_ID = 7L;
+    private static final int CYCLES = 200;
+    private static final long COMPLETION_CYCLE = 60;
+    private static final BigDecimal REBELLION_THRESHOLD = new BigDecimal("30");
+
+    @Test
+    void fastForwardMatchesSequentialFusedCycles() {
+        PlanetModifiers modifiers = modifiers();
+        List<Planet> fastForwarded = planets();
+        List<Planet> fused = planets();
+
+        // Путь fastForward: одно ядро на все циклы, одна запись в конце
+        PlanetSimulationCore core = PlanetSimulationCore.fromPlanets(fastForwarded, modifiers);
+        for (long cycle = 1; cycle <= CYCLES; cycle++) {
+            core.startCycle();
+            runCycle(core, TickRandom.forCycle(BASE_SEED, TRADER_ID, cycle));
+        }
+        core.writeBack(fastForwarded);
+
+        // Путь FUSED: новое ядро из строк БД на каждый цикл и триггер на каждой записи
+        for (long cycle = 1; cycle <= CYCLES; cycle++) {
+            PlanetSimulationCore cycleCore = PlanetSimulationCore.fromPlanets(fused, modifiers);
+            runCycle(cycleCore, TickRandom.forCycle(BASE_SEED, TRADER_ID, cycle));
+            List<BigDecimal> oldLoyalty = fused.stream().map(Planet::getLoyalty).toList();
+            for (Planet planet : cycleCore.writeBack(fused)) {
+                applyRebellionCheckTrigger(oldLoyalty.get(fused.indexOf(planet)), planet);
+            }
+        }
+
+        assertSamePlanets(fused, fastForwarded);
+    }
+
+    @Test
+    void fastForwardAppliesModifiersOfProjectsCompletedMidway() {
+        List<Planet> fastForwarded = planets();
+        List<Planet> fused = planets();
+        Map<Long, PlanetModifier> upgraded = upgradedModifiers();
+        List<PlanetModifier> after = new ArrayList<>(modifiersList());
+        after.removeIf(modifier -> upgraded.containsKey(modifier.getPlanetId()));
+        after.addAll(upgraded.values());
+
+        // Путь fastForward: после цикла завершения проектов ядро получает пересчитанные модификаторы
+        PlanetSimulationCore core = PlanetSimulationCore.fromPlanets(fastForwarded, modifiers());
+        for (long cycle = 1; cycle <= CYCLES; cycle++) {
+            core.startCycle();
+            runCycle(core, TickRandom.forCycle(BASE_SEED, TRADER_ID, cycle));
+            if (cycle == COMPLETION_CYCLE) {
+                core.updateModifiers(fastForwarded, upgraded);
+            }
+        }
+        core.writeBack(fastForwarded);
+
+        // Путь FUSED: каждый вызов читает planet_modifiers, уже пересчитанные триггером project_completion
+        for (long cycle = 1; cycle <= CYCLES; cycle++) {
+            PlanetModifiers cycleModifiers = cycle <= COMPLETION_CYCLE ? modifiers() : PlanetModifiers.of(after);
+            PlanetSimulationCore cycleCore = PlanetSimulationCore.fromPlanets(fused, cycleModifiers);
+            runCycle(cycleCore, TickRandom.forCycle(BASE_SEED, TRADER_ID, cycle));
+            List<BigDecimal> oldLoyalty = fused.stream().map(Planet::getLoyalty).toList();
+            for (Planet planet : cycleCore.writeBack(fused)) {
+                applyRebellionCheckTrigger(oldLoyalty.get(fused.indexOf(planet)), planet);
+            }
+        }
+
+        assertSamePlanets(fused, fastForwarded);
+    }
+
+    private static void assertSamePlanets(List<Planet> expectedPlanets, List<Planet> actualPlanets) {
+        for (int i = 0; i < expectedPlanets.size(); i++) {
+            Planet expected = expectedPlanets.get(i);
+            Planet actual = actualPlanets.get(i);
+            assertEquals(0, expected.getWealth().compareTo(actual.getWealth()), "wealth планеты " + i);
+            assertEquals(0, expected.getLoyalty().compareTo(actual.getLoyalty()), "loyalty планеты " + i);
+            assertEquals(expected.getIsRebellious(), actual.getIsRebellious(), "is_rebellious планеты " + i);
+        }
+    }
+
+    // Фазы runFusedCycle без проектов: у проектов собственный поток случайных чисел
+    private static void runCycle(PlanetSimulationCore core, TickRandom random) {
+        core.collectTaxes();
+        core.generateEvents(random.events());
+        core.updateLoyalty(random.loyalty());
+        core.checkRebellions();
+    }
+
+    // Правило функции update_rebellion_status() из triggers.sql
+    private static void applyRebellionCheckTrigger(BigDecimal oldLoyalty, Planet planet) {
+        boolean wasLoyal = oldLoyalty.compareTo(REBELLION_THRESHOLD) >= 0;
+        boolean isLoyal = planet.getLoyalty().compareTo(REBELLION_THRESHOLD) >= 0;
+        if (!isLoyal && wasLoyal) {
+            planet.setIsRebellious(true);
+        } else if (isLoyal && !wasLoyal) {
+            planet.setIsRebellious(false);
+        }
+    }
+
+    // Планеты у порога бунта, в том числе уже мятежные, чтобы пройти и бунт, и усмирение
+    private static List<Planet> planets() {
+        List<Planet> planets = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Planet planet = new Planet();
+            planet.setId((long) i + 1);
+            planet.setName("Планета " + i);
+            planet.setLoyalty(new BigDecimal(24 + i % 12));
+            planet.setWealth(new BigDecimal(10_000 + i * 137).movePointLeft(2).add(new BigDecimal("1000")));
+            planet.setIsRebellious(i % 12 < 6 && i % 2 == 0);
+            planets.add(planet);
+        }
+        return planets;
+    }
+
+    // Дрейф улучшений в обе стороны, чтобы лояльность пересекала порог много раз
+    private static PlanetModifiers modifiers() {
+        return PlanetModifiers.of(modifiersList());
+    }
+
+    private static List<PlanetModifier> modifiersList() {
+        List<PlanetModifier> modifiers = new ArrayList<>();
+        for (long id = 1; id <= 40; id += 3) {
+            modifiers.add(new PlanetModifier(id, new BigDecimal("0.0500"), id % 2 == 0 ? 1 : -1,
+                    new BigDecimal("1.5000")));
+        }
+        return modifiers;
+    }
+
+    // Улучшения завершённых проектов: и планеты без модификаторов, и планеты с уже установленными улучшениями
+    private static Map<Long, PlanetModifier> upgradedModifiers() {
+        Map<Long, PlanetModifier> upgraded = new HashMap<>();
+        for (long id = 1; id <= 40; id += 5) {
+            upgraded.put(id, new PlanetModifier(id, new BigDecimal("0.2500"), 2, new BigDecimal("0.4000")));
+        }
+        return upgraded;
+    }
+}
@@ -0,0 +1,79 @@
+-- Бенчмарк вставки событий и сообщений: по строке на запрос против пакетов по 50 строк
+-- Запускать на базе, инициализированной приложением (sql/schema.sql, functions.sql, triggers.sql):
+--   psql -d <db> -f benchmark_inserts.sql
+-- Все тестовые данные откатываются в конце скрипта.
+--
+-- Каждый INSERT отправляется psql отдельным запросом через \gexec, поэтому round-trip до сервера
+-- учитывается так же, как в приложении:
+--   * "до"    - GenerationType.IDENTITY: Hibernate выполняет INSERT ... RETURNING id на каждую строку;
+--   * "после" - SEQUENCE с allocationSize = 50: Hibernate пакетирует INSERT по hibernate.jdbc.batch_size,
+--               а драйвер с reWriteBatchedInserts переписывает пакет в один многострочный INSERT.
+-- Вывод самих INSERT подавляется, печатается суммарное время каждого блока.
+
+\echo '=== БЕНЧМАРК ВСТАВКИ: IDENTITY (по строке) vs SEQUENCE + JDBC batching (по 50 строк) ==='
+
+\set rows 10000
+
+BEGIN;
+
+INSERT INTO users (email, password_hash, role)
+VALUES ('bench-inserts-sender@bench.ru', 'bench', 'TRADER'), ('bench-inserts-receiver@bench.ru', 'bench', 'TRADER');
+INSERT INTO rogue_traders (user_id, dynasty_name)
+SELECT id, 'Bench-Inserts' FROM users WHERE email = 'bench-inserts-sender@bench.ru';
+INSERT INTO planets (name, planet_type, loyalty, wealth, industry, resources, trader_id, is_rebellious)
+SELECT 'Bench-Inserts', 'AGRI_WORLD', 50, 1000, 100, 100, id, FALSE
+FROM rogue_traders WHERE dynasty_name = 'Bench-Inserts';
+
+SELECT id AS planet_id FROM planets WHERE name = 'Bench-Inserts' \gset
+SELECT id AS sender_id FROM users WHERE email = 'bench-inserts-sender@bench.ru' \gset
+SELECT id AS receiver_id FROM users WHERE email = 'bench-inserts-receiver@bench.ru' \gset
+
+\echo ''
+\echo '--- События: по строке на запрос (IDENTITY) ---'
+SELECT clock_timestamp() AS started \gset
+\o /dev/null
+SELECT format('INSERT INTO events (planet_id, event_type, severity, description, resolved) '
+              'VALUES (%s, %L, %s, %L, FALSE) RETURNING id',
+              :planet_id, 'NATURAL_DISASTER', 1 + g % 10, 'Событие ' || g)
+FROM generate_series(1, :rows) g \gexec
+\o
+SELECT ROUND(EXTRACT(EPOCH FROM clock_timestamp() - :'started') * 1000, 1) AS ms, :rows AS rows;
+
+\echo ''
+\echo '--- События: пакеты по 50 строк (SEQUENCE + reWriteBatchedInserts) ---'
+SELECT clock_timestamp() AS started \gset
+\o /dev/null
+SELECT 'INSERT INTO events (id, planet_id, event_type, severity, description, resolved) VALUES '
+       || string_agg(format('(nextval(%L), %s, %L, %s, %L, FALSE)',
+                            'events_id_seq', :planet_id, 'NATURAL_DISASTER', 1 + g % 10, 'Событие ' || g), ', ')
+FROM generate_series(1, :rows) g
+GROUP BY (g - 1) / 50 \gexec
+\o
+SELECT ROUND(EXTRACT(EPOCH FROM clock_timestamp() - :'started') * 1000, 1) AS ms, :rows AS rows;
+
+\echo ''
+\echo '--- Сообщения: по строке на запрос (IDENTITY) ---'
+SELECT clock_timestamp() AS started \gset
+\o /dev/null
+SELECT format('INSERT INTO messages (sender_id, receiver_id, content, message_type) '
+              'VALUES (%s, %s, %L, %L) RETURNING id',
+              :sender_id, :receiver_id, 'Сообщение ' || g, 'STATUS_UPDATE')
+FROM generate_series(1, :rows) g \gexec
+\o
+SELECT ROUND(EXTRACT(EPOCH FROM clock_timestamp() - :'started') * 1000, 1) AS ms, :rows AS rows;
+
+\echo ''
+\echo '--- Сообщения: пакеты по 50 строк (SEQUENCE + reWriteBatchedInserts) ---'
+SELECT clock_timestamp() AS started \gset
+\o /dev/null
+SELECT 'INSERT INTO messages (id, sender_id, receiver_id, content, message_type) VALUES '
+       || string_agg(format('(nextval(%L), %s, %s, %L, %L)',
+                            'messages_id_seq', :sender_id, :receiver_id, 'Сообщение ' || g, 'STATUS_UPDATE'), ', ')
+FROM generate_series(1, :rows) g
+GROUP BY (g - 1) / 50 \gexec
+\o
+SELECT ROUND(EXTRACT(EPOCH FROM clock_timestamp() - :'started') * 1000, 1) AS ms, :rows AS rows;
+
+ROLLBACK;
+
+\echo 'Готово! Тестовые данные откачены.'
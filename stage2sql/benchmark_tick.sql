@@ -0,0 +1,95 @@
+-- Бенчмарк цикла времени: поштучные UPDATE против set-based функций
+-- Запускать на базе, инициализированной приложением (sql/schema.sql, functions.sql, triggers.sql):
+--   psql -d <db> -f benchmark_tick.sql
+-- Все тестовые данные откатываются в конце скрипта.
+--
+-- Замер только на стороне SQL: TimeService, Hibernate и JDBC не участвуют.
+-- Поштучный путь эмулируется циклом внутри PL/pgSQL, поэтому он не учитывает
+-- сетевые round-trip и накладные расходы Hibernate - в приложении разница больше.
+-- Цифры скрипта нельзя выдавать за время цикла через сервис.
+
+\echo '=== БЕНЧМАРК ЦИКЛА ВРЕМЕНИ (только SQL, эмуляция): STANDARD vs BULK ==='
+
+BEGIN;
+
+DO $$
+DECLARE
+    sizes INT[] := ARRAY[1000, 10000, 100000];
+    planet_count INT;
+    user_id_var INT;
+    standard_trader INT;
+    bulk_trader INT;
+    rec RECORD;
+    tax DECIMAL;
+    total_tax DECIMAL;
+    new_loyalty DECIMAL;
+    candidates INT[];
+    started TIMESTAMP;
+    standard_ms NUMERIC;
+    bulk_ms NUMERIC;
+BEGIN
+    FOREACH planet_count IN ARRAY sizes LOOP
+        -- Два торговца с одинаковыми наборами планет
+        INSERT INTO users (email, password_hash, role)
+        VALUES ('bench-standard-' || planet_count || '@bench.ru', 'bench', 'TRADER')
+        RETURNING id INTO user_id_var;
+        INSERT INTO rogue_traders (user_id, dynasty_name)
+        VALUES (user_id_var, 'Bench-Standard-' || planet_count)
+        RETURNING id INTO standard_trader;
+
+        INSERT INTO users (email, password_hash, role)
+        VALUES ('bench-bulk-' || planet_count || '@bench.ru', 'bench', 'TRADER')
+        RETURNING id INTO user_id_var;
+        INSERT INTO rogue_traders (user_id, dynasty_name)
+        VALUES (user_id_var, 'Bench-Bulk-' || planet_count)
+        RETURNING id INTO bulk_trader;
+
+        INSERT INTO planets (name, planet_type, loyalty, wealth, industry, resources, trader_id, is_rebellious)
+        SELECT 'Bench-' || t.id || '-' || g, 'AGRI_WORLD', 25 + (g % 60), 1000 + (g % 5000), 100, 100, t.id, FALSE
+        FROM generate_series(1, planet_count) g
+        CROSS JOIN (VALUES (standard_trader), (bulk_trader)) AS t(id);
+
+        -- STANDARD: один UPDATE на планету в каждой фазе
+        started := clock_timestamp();
+
+        total_tax := 0;
+        FOR rec IN SELECT id, wealth FROM planets
+                   WHERE trader_id = standard_trader AND is_rebellious = FALSE LOOP
+            tax := rec.wealth * 0.1;
+            UPDATE planets SET wealth = wealth - tax WHERE id = rec.id;
+            total_tax := total_tax + tax;
+        END LOOP;
+        UPDATE rogue_traders SET total_wealth = total_wealth + total_tax WHERE id = standard_trader;
+
+        FOR rec IN SELECT id, loyalty FROM planets WHERE trader_id = standard_trader LOOP
+            new_loyalty := LEAST(100, GREATEST(0, rec.loyalty + (FLOOR(RANDOM() * 5) - 2)::INT));
+            UPDATE planets SET loyalty = new_loyalty WHERE id = rec.id;
+        END LOOP;
+
+        FOR rec IN SELECT id, name FROM planets
+                   WHERE trader_id = standard_trader AND loyalty < 30 AND is_rebellious = FALSE LOOP
+            UPDATE planets SET is_rebellious = TRUE WHERE id = rec.id;
+            INSERT INTO events (planet_id, event_type, severity, description, resolved)
+            VALUES (rec.id, 'INSURRECTION', 8, 'Мятеж на планете ' || rec.name, FALSE);
+        END LOOP;
+
+        standard_ms := EXTRACT(EPOCH FROM clock_timestamp() - started) * 1000;
+
+        -- BULK: по одному set-based запросу на фазу
+        started := clock_timestamp();
+
+        PERFORM collect_taxes_bulk(bulk_trader);
+        candidates := ARRAY(SELECT update_loyalty_bulk(bulk_trader, planet_count));
+        PERFORM check_rebellions_bulk(bulk_trader, candidates);
+
+        bulk_ms := EXTRACT(EPOCH FROM clock_timestamp() - started) * 1000;
+
+        RAISE NOTICE 'Планет: % | STANDARD (эмуляция PL/pgSQL): % мс | BULK: % мс | ускорение: %x',
+            planet_count, ROUND(standard_ms, 1), ROUND(bulk_ms, 1),
+            ROUND(standard_ms / GREATEST(bulk_ms, 0.001), 1);
+    END LOOP;
+END $$;
+
+ROLLBACK;
+
+\echo 'Готово! Тестовые данные откачены.'
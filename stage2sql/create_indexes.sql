@@ -18,6 +18,8 @@ CREATE INDEX idx_events_planet_resolved ON events(planet_id, resolved);
 -- Для проектов
 CREATE INDEX idx_projects_planet_status ON projects(planet_id, status);
 CREATE INDEX idx_projects_upgrade ON projects(upgrade_id);
+CREATE INDEX idx_projects_active ON projects(planet_id, status, id)
+    WHERE status IN ('PLANNED', 'IN_PROGRESS');
 
 -- Для маршрутов
 CREATE INDEX idx_routes_navigator ON routes(navigator_id);
@@ -63,4 +65,10 @@ CREATE INDEX idx_rogue_traders_warrant ON rogue_traders(warrant_number);
 --    
 -- 6. idx_events_planet_resolved - важен для дашборда Вольного Торговца (FR2).
 --    Позволяет быстро находить активные события на планетах для отображения
---    на сводном дашборде империи.
\ No newline at end of file
+--    на сводном дашборде империи.
+--
+-- 7. idx_projects_active - важен для цикла времени (обновление проектов торговца).
+--    Частичный индекс только по активным проектам: планеты торговца находятся по
+--    idx_planets_trader_rebellious, а их PLANNED и IN_PROGRESS проекты читаются
+--    index-only сканом. Завершённые проекты в индекс не попадают, поэтому его размер
+--    и стоимость цикла зависят от числа активных проектов торговца, а не всей галактики.
\ No newline at end of file